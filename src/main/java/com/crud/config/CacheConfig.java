@@ -1,27 +1,143 @@
 package com.crud.config;
 
+import com.crud.config.cache.AppCacheProperties;
+import com.crud.config.cache.CacheEntryListener;
+import com.crud.config.cache.CacheEntryWeigher;
+import com.crud.config.cache.CoalescingCache;
+import com.crud.config.cache.ListeningCache;
+import com.crud.config.cache.ProductCacheIndex;
+import com.crud.config.cache.ProductPageKey;
+import com.crud.config.cache.ProductPageKeyGenerator;
+import com.crud.config.cache.RefreshAheadCache;
+import com.crud.config.cache.cluster.SharedCacheTier;
+import com.crud.config.cache.cluster.TwoTierCache;
+import com.crud.config.datasource.ReadYourWrites;
+import com.crud.config.datasource.ReadYourWritesCache;
+import com.crud.util.AppConstants;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCache;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.interceptor.SimpleKey;
 import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 
 import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
 
 @Configuration
-@EnableCaching
+// El advice de cache envuelve al transaccional: los aciertos y las esperas coalescidas no toman conexion.
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+@EnableConfigurationProperties(AppCacheProperties.class)
+@RequiredArgsConstructor
 public class CacheConfig {
 
+    private final AppCacheProperties cacheProperties;
+    private final MeterRegistry meterRegistry;
+
     @Bean
-    public CacheManager cacheManager() {
+    public CacheManager cacheManager(ProductCacheIndex productCacheIndex, ObjectProvider<SharedCacheTier> sharedCacheTier,
+                                     ObjectProvider<ReadYourWrites> readYourWrites,
+                                     @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+                                     Executor refreshExecutor) {
+        SharedCacheTier shared = sharedCacheTier.getIfAvailable();
+        ReadYourWrites sticky = readYourWrites.getIfAvailable();
         SimpleCacheManager cacheManager = new SimpleCacheManager();
         cacheManager.setCaches(Arrays.asList(
-                new ConcurrentMapCache("Producto"),
-                new ConcurrentMapCache("Categoria")
+                decorate(AppConstants.CACHE_PRODUCTO, productCacheIndex, shared, sticky, refreshExecutor),
+                decorate(AppConstants.CACHE_CATEGORIA, null, shared, sticky, refreshExecutor),
+                decorate(AppConstants.CACHE_PRODUCTO_FACETAS, null, shared, sticky, refreshExecutor)
         ));
         return cacheManager;
     }
 
+    @Bean
+    public ProductCacheIndex productCacheIndex() {
+        return new ProductCacheIndex();
+    }
+
+    @Bean
+    public ProductPageKeyGenerator productPageKeyGenerator() {
+        return new ProductPageKeyGenerator();
+    }
+
+    // Caffeine L1 -> L2 compartida (opcional) -> indice lateral -> cargas single-flight -> refresh-ahead (opcional)
+    // -> con replica, bypass read-your-writes.
+    private Cache decorate(String name, CacheEntryListener listener, SharedCacheTier shared, ReadYourWrites readYourWrites,
+                           Executor refreshExecutor) {
+        AppCacheProperties.Spec spec = cacheProperties.specFor(name);
+        CaffeineCache local = buildCache(name, spec, listener);
+        CaffeineCacheMetrics.monitor(meterRegistry, local.getNativeCache(), name);
+
+        Cache cache = local;
+        if (shared != null) {
+            cache = new TwoTierCache(cache, shared, listener);
+        }
+        if (listener != null) {
+            cache = new ListeningCache(cache, listener);
+        }
+        CoalescingCache coalescing = new CoalescingCache(cache, cacheProperties.getCoalescing().getTimeout(), meterRegistry);
+        cache = coalescing;
+        if (spec.getRefreshAfter() != null) {
+            cache = new RefreshAheadCache(coalescing, spec.getRefreshAfter(), spec.getExpireAfterWrite(), spec.getStaleIfError(),
+                    refreshAheadKeys(name), refreshExecutor, meterRegistry);
+        }
+        if (readYourWrites != null) {
+            cache = new ReadYourWritesCache(cache, readYourWrites);
+        }
+        return cache;
+    }
+
+    // Solo lo que se pide en casi cada vista: listCategories() y la primera pagina por defecto del listado.
+    private static Predicate<Object> refreshAheadKeys(String name) {
+        return switch (name) {
+            case AppConstants.CACHE_PRODUCTO -> ProductPageKey.defaultFirstPage()::equals;
+            case AppConstants.CACHE_CATEGORIA -> SimpleKey.EMPTY::equals;
+            default -> key -> true;
+        };
+    }
+
+    // Caffeine expulsa con W-TinyLFU: las claves de un solo uso (crawlers recorriendo todas las paginas)
+    // no entran a costa de las que se leen a menudo.
+    private CaffeineCache buildCache(String name, AppCacheProperties.Spec spec, CacheEntryListener listener) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().recordStats();
+        if (listener != null) {
+            builder.evictionListener((key, value, cause) -> listener.onRemoval(key));
+        }
+
+        if (spec.getMaximumWeight() != null) {
+            builder.maximumWeight(spec.getMaximumWeight().toBytes()).weigher(new CacheEntryWeigher());
+        } else {
+            builder.maximumSize(spec.getMaximumSize());
+        }
+        if (spec.getRefreshAfter() != null) {
+            if (spec.getExpireAfterWrite() == null) {
+                throw new IllegalStateException("Cache " + name + ": refresh-after requires expire-after-write");
+            }
+            if (spec.getExpireAfterAccess() != null) {
+                // Expulsaria entradas antes de que stale-if-error pudiera servirlas.
+                throw new IllegalStateException("Cache " + name + ": refresh-after cannot be combined with expire-after-access");
+            }
+            // Solo las claves con refresh-ahead se conservan durante stale-if-error; RefreshAheadCache aplica el TTL real.
+            builder.expireAfter(RefreshAheadCache.expiry(spec.getExpireAfterWrite(), spec.getStaleIfError(), refreshAheadKeys(name)));
+        } else if (spec.getExpireAfterWrite() != null) {
+            builder.expireAfterWrite(spec.getExpireAfterWrite());
+        }
+        if (spec.getExpireAfterAccess() != null) {
+            builder.expireAfterAccess(spec.getExpireAfterAccess());
+        }
+        return new CaffeineCache(name, builder.build());
+    }
+
 }
@@ -0,0 +1,47 @@
+package com.crud.config;
+
+import com.crud.config.cache.AppCacheProperties;
+import com.crud.config.cache.cluster.CacheInvalidationBus;
+import com.crud.config.cache.cluster.ClusterCacheRelay;
+import com.crud.config.cache.cluster.InMemorySharedCacheTier;
+import com.crud.config.cache.cluster.LoopbackInvalidationBus;
+import com.crud.config.cache.cluster.SharedCacheTier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.util.UUID;
+
+/**
+ * Cache en varios nodos ({@code app.cache.cluster.enabled=true}). Por defecto, bus loopback y
+ * L2 en memoria; declarar otro bean {@link CacheInvalidationBus} o {@link SharedCacheTier}
+ * para usar un transporte o almacen reales.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.cache.cluster", name = "enabled", havingValue = "true")
+public class ClusterCacheConfig {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public CacheInvalidationBus cacheInvalidationBus(AppCacheProperties cacheProperties) {
+        return new LoopbackInvalidationBus(cacheProperties.getCluster().getChannel());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "app.cache.cluster.l2", name = "enabled", havingValue = "true")
+    public SharedCacheTier sharedCacheTier(AppCacheProperties cacheProperties) {
+        AppCacheProperties.Cluster cluster = cacheProperties.getCluster();
+        return new InMemorySharedCacheTier(cluster.getChannel(), cluster.getL2().getTtl(), cluster.getL2().getMaximumSize());
+    }
+
+    @Bean
+    public ClusterCacheRelay clusterCacheRelay(CacheInvalidationBus bus, ApplicationEventPublisher eventPublisher,
+                                               AppCacheProperties cacheProperties) {
+        String nodeId = cacheProperties.getCluster().getNodeId();
+        return new ClusterCacheRelay(bus, eventPublisher, StringUtils.hasText(nodeId) ? nodeId : UUID.randomUUID().toString());
+    }
+}
@@ -0,0 +1,104 @@
+package com.crud.config;
+
+import com.crud.config.cache.CategoryCacheInvalidator;
+import com.crud.config.cache.ProductCacheInvalidator;
+import com.crud.config.datasource.ReadWriteRoutingDataSource;
+import com.crud.config.datasource.ReadYourWrites;
+import com.crud.config.datasource.ReplicaCacheGuard;
+import com.crud.config.datasource.ReplicaLagMonitor;
+import com.crud.config.datasource.ReplicaProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.TaskScheduler;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+/**
+ * Replica de lectura ({@code app.datasource.replica.enabled=true}): las transacciones de solo
+ * lectura van al pool de la replica y todo lo demas al primario de {@code spring.datasource.*}.
+ * Ver {@link ReadWriteRoutingDataSource}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.replica", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(ReplicaProperties properties) {
+        HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class)
+                .url(properties.getUrl())
+                .username(properties.getUsername())
+                .password(properties.getPassword())
+                .driverClassName(properties.getDriverClassName())
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                               ReplicaProperties properties) {
+        return new ReplicaLagMonitor(replicaDataSource, properties);
+    }
+
+    @Bean
+    public ReadYourWrites readYourWrites(ReplicaProperties properties) {
+        if (properties.getStickyWindow().compareTo(properties.getMaxLag()) < 0) {
+            throw new IllegalStateException("app.datasource.replica.sticky-window must be at least max-lag");
+        }
+        return new ReadYourWrites(properties.getStickyCookie(), properties.getStickyWindow());
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                                       @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                                       ReplicaLagMonitor replicaLagMonitor, ReadYourWrites readYourWrites) {
+        return new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource, replicaLagMonitor, readYourWrites);
+    }
+
+    // Perezoso: la conexion real se elige en la primera sentencia, cuando ya se sabe si la transaccion es de solo lectura.
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    // Una conexion por transaccion: con open-in-view la sesion no se queda la del replica para la siguiente escritura.
+    @Bean
+    public HibernatePropertiesCustomizer connectionReleaseCustomizer() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    @Bean
+    public ReplicaCacheGuard replicaCacheGuard(ProductCacheInvalidator productCacheInvalidator,
+                                               CategoryCacheInvalidator categoryCacheInvalidator,
+                                               EntityManagerFactory entityManagerFactory, TaskScheduler taskScheduler,
+                                               ReplicaProperties properties) {
+        return new ReplicaCacheGuard(productCacheInvalidator, categoryCacheInvalidator, entityManagerFactory, taskScheduler,
+                properties.getMaxLag().plus(properties.getLagCheckInterval()));
+    }
+}
@@ -0,0 +1,55 @@
+package com.crud.config;
+
+import com.crud.config.cache.AppCacheProperties;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.OptionalLong;
+
+/**
+ * Cache de segundo nivel de Hibernate sobre el proveedor JCache de Caffeine: las regiones de
+ * entidades y consultas comparten la politica de expulsion de las caches de la aplicacion. Se
+ * declaran en {@code app.cache.hibernate.<region>}; cualquier otra Hibernate la crea por defecto.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class HibernateCacheConfig {
+
+    private final AppCacheProperties cacheProperties;
+
+    // Un CacheManager por contexto: el proveedor JCache los comparte por URI dentro de la JVM.
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("crud-hibernate-" + System.identityHashCode(this)), getClass().getClassLoader());
+        cacheProperties.getHibernate().forEach((region, spec) -> {
+            if (cacheManager.getCache(region) == null) {
+                cacheManager.createCache(region, regionConfiguration(spec));
+            }
+        });
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    private static CaffeineConfiguration<Object, Object> regionConfiguration(AppCacheProperties.Spec spec) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(spec.getMaximumSize()));
+        if (spec.getExpireAfterWrite() != null) {
+            configuration.setExpireAfterWrite(OptionalLong.of(spec.getExpireAfterWrite().toNanos()));
+        }
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
@@ -0,0 +1,66 @@
+package com.crud.config;
+
+import com.crud.repositories.ProductImageRepository;
+import com.crud.repositories.ProductRepository;
+import com.crud.storage.DatabaseImageStorage;
+import com.crud.storage.FileChannelResourceHttpMessageConverter;
+import com.crud.storage.FileSystemImageStorage;
+import com.crud.storage.ImageMigrationRunner;
+import com.crud.storage.ImageStorage;
+import com.crud.storage.ImageStorageProperties;
+import com.crud.storage.ImageVariantCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.ResourceHttpMessageConverter;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Almacenamiento de imagenes, elegido con {@code app.images.storage}: BLOBs en la base de datos
+ * (por defecto) o un directorio en disco local direccionado por contenido.
+ */
+@Configuration
+@EnableConfigurationProperties(ImageStorageProperties.class)
+public class ImageStorageConfig implements WebMvcConfigurer {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.images", name = "storage", havingValue = "database", matchIfMissing = true)
+    public ImageStorage databaseImageStorage(ProductImageRepository productImageRepository) {
+        return new DatabaseImageStorage(productImageRepository);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.images", name = "storage", havingValue = "filesystem")
+    public ImageStorage fileSystemImageStorage(ImageStorageProperties properties, ProductRepository productRepository) {
+        return new FileSystemImageStorage(properties.getDirectory(), productRepository);
+    }
+
+    // Antes del warm-up, para que los caches se llenen con los digests ya migrados.
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @ConditionalOnProperty(prefix = "app.images", name = "storage", havingValue = "filesystem")
+    public ImageMigrationRunner imageMigrationRunner(ProductImageRepository productImageRepository,
+                                                     ProductRepository productRepository, ImageStorage imageStorage,
+                                                     TransactionTemplate transactionTemplate) {
+        return new ImageMigrationRunner(productImageRepository, productRepository, imageStorage, transactionTemplate);
+    }
+
+    @Bean
+    public ImageVariantCache imageVariantCache(ImageStorageProperties properties, MeterRegistry meterRegistry) {
+        return new ImageVariantCache(properties.getVariants(), meterRegistry);
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.replaceAll(converter -> converter.getClass() == ResourceHttpMessageConverter.class
+                ? new FileChannelResourceHttpMessageConverter() : converter);
+    }
+}
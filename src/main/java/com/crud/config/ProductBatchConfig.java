@@ -0,0 +1,10 @@
+package com.crud.config;
+
+import com.crud.services.ProductBatchProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ProductBatchProperties.class)
+public class ProductBatchConfig {
+}
@@ -0,0 +1,103 @@
+package com.crud.config.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Limites por cache, leidos de {@code app.cache.specs.<cacheName>.*}.
+ * Una cache se acota por numero de entradas ({@code maximum-size}) o por bytes de heap
+ * estimados ({@code maximum-weight}); si estan los dos, gana el peso.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.cache")
+public class AppCacheProperties {
+
+    /** Limites de las caches sin spec propia. */
+    private Spec defaults = new Spec();
+
+    private Map<String, Spec> specs = new HashMap<>();
+
+    /** Regiones de la cache de segundo nivel de Hibernate, por nombre (solo {@code maximum-size} y {@code expire-after-write}). */
+    private Map<String, Spec> hibernate = new HashMap<>();
+
+    private Coalescing coalescing = new Coalescing();
+
+    private Cluster cluster = new Cluster();
+
+    private Warmup warmup = new Warmup();
+
+    public Spec specFor(String cacheName) {
+        return specs.getOrDefault(cacheName, defaults);
+    }
+
+    @Getter
+    @Setter
+    public static class Spec {
+
+        private long maximumSize = 10_000;
+        private DataSize maximumWeight;
+        private Duration expireAfterWrite;
+        private Duration expireAfterAccess;
+        /** TTL blando: los aciertos mas viejos se sirven mientras se recargan en segundo plano. Requiere expire-after-write, excluye expire-after-access. */
+        private Duration refreshAfter;
+        /** Cuanto tiempo despues de expire-after-write se puede seguir sirviendo una entrada si su recarga falla. */
+        private Duration staleIfError;
+    }
+
+    @Getter
+    @Setter
+    public static class Coalescing {
+
+        /** Cuanto espera una llamada a la carga en curso de la misma clave antes de fallar con 503. */
+        private Duration timeout = Duration.ofSeconds(5);
+    }
+
+    @Getter
+    @Setter
+    public static class Cluster {
+
+        /** Difunde las escrituras confirmadas a los demas nodos por el bus de invalidacion. */
+        private boolean enabled;
+        /** Identidad de este nodo en el bus; un id aleatorio si esta vacia. */
+        private String nodeId;
+        /** Canal del bus y de la L2 que comparten los nodos de un despliegue. */
+        private String channel = "crud-products";
+        private L2 l2 = new L2();
+    }
+
+    @Getter
+    @Setter
+    public static class L2 {
+
+        private boolean enabled;
+        private Duration ttl = Duration.ofMinutes(10);
+        private long maximumSize = 100_000;
+    }
+
+    @Getter
+    @Setter
+    public static class Warmup {
+
+        private boolean enabled = true;
+        /** Primeras paginas que se precargan de cada orden. */
+        private int pages = 3;
+        private int pageSize = 10;
+        /** Ordenes a precargar, como {@code campo:direccion}. */
+        private List<String> sortOrders = new ArrayList<>(List.of("id:asc"));
+        /** Productos mas pedidos que se precargan a partir de la foto de accesos. */
+        private int topProducts = 100;
+        /** Donde se escribe la foto de accesos al parar y se lee al arrancar. */
+        private String snapshotFile = "cache-access-snapshot.txt";
+        /** El nodo se declara listo al terminar el warm-up o al agotarse este tiempo. */
+        private Duration timeBudget = Duration.ofSeconds(30);
+    }
+}
@@ -0,0 +1,14 @@
+package com.crud.config.cache;
+
+/**
+ * Aviso para las caches que mantienen un indice lateral de sus entradas. Se llama de forma
+ * sincrona en escrituras y expulsiones explicitas, y en las expulsiones por tamaño o caducidad.
+ */
+public interface CacheEntryListener {
+
+    void onPut(Object key, Object value);
+
+    void onRemoval(Object key);
+
+    void onClear();
+}
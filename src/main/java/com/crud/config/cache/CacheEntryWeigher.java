@@ -0,0 +1,61 @@
+package com.crud.config.cache;
+
+import com.crud.dtos.response.CategoryResponse;
+import com.crud.dtos.response.PageableResponse;
+import com.crud.dtos.response.ProductResponse;
+import com.github.benmanes.caffeine.cache.Weigher;
+
+import java.util.Collection;
+
+/**
+ * Estimacion aproximada (en bytes) del tamaño de los valores cacheados, para las caches
+ * acotadas por {@code maximum-weight}. Basta con que sea proporcional, no exacta.
+ */
+public class CacheEntryWeigher implements Weigher<Object, Object> {
+
+    private static final int OBJECT_HEADER = 16;
+    private static final int REFERENCE = 8;
+    private static final int BOXED_NUMBER = 16;
+
+    @Override
+    public int weigh(Object key, Object value) {
+        long weight = estimate(key) + estimate(value);
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(1, weight));
+    }
+
+    static long estimate(Object value) {
+        if (value == null) {
+            return REFERENCE;
+        }
+        if (value instanceof String string) {
+            return OBJECT_HEADER + 24 + string.length();
+        }
+        if (value instanceof Number || value instanceof Boolean) {
+            return BOXED_NUMBER;
+        }
+        if (value instanceof CategoryResponse category) {
+            return OBJECT_HEADER + estimate(category.getId()) + estimate(category.getName());
+        }
+        if (value instanceof ProductResponse product) {
+            return OBJECT_HEADER
+                    + estimate(product.getId())
+                    + estimate(product.getName())
+                    + estimate(product.getPrice())
+                    + estimate(product.getDescription())
+                    + estimate(product.getCategory())
+                    + estimate(product.getImageDigest())
+                    + estimate(product.getImageContentType());
+        }
+        if (value instanceof PageableResponse<?> page) {
+            return OBJECT_HEADER + 32 + estimate(page.getContent());
+        }
+        if (value instanceof Collection<?> collection) {
+            long size = OBJECT_HEADER + 16L + (long) REFERENCE * collection.size();
+            for (Object element : collection) {
+                size += estimate(element);
+            }
+            return size;
+        }
+        return OBJECT_HEADER + 4L * REFERENCE;
+    }
+}
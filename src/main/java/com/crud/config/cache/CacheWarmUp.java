@@ -0,0 +1,96 @@
+package com.crud.config.cache;
+
+import com.crud.services.CategoryService;
+import com.crud.services.ProductService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Precarga las caches al arrancar: todas las categorias, las primeras paginas de los ordenes
+ * configurados y los productos mas pedidos en la ejecucion anterior. Spring Boot solo pasa
+ * readiness a ACCEPTING_TRAFFIC cuando terminan los application runners, asi que el nodo se
+ * declara listo al acabar el warm-up o al agotarse {@code time-budget} (las cargas que
+ * queden terminan en segundo plano).
+ */
+@Slf4j
+@Component
+public class CacheWarmUp implements ApplicationRunner {
+
+    private final AppCacheProperties cacheProperties;
+    private final CategoryService categoryService;
+    private final ProductService productService;
+    private final ProductAccessTracker productAccessTracker;
+    private final Executor executor;
+
+    public CacheWarmUp(AppCacheProperties cacheProperties, CategoryService categoryService, ProductService productService,
+                       ProductAccessTracker productAccessTracker,
+                       @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor executor) {
+        this.cacheProperties = cacheProperties;
+        this.categoryService = categoryService;
+        this.productService = productService;
+        this.productAccessTracker = productAccessTracker;
+        this.executor = executor;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws InterruptedException {
+        AppCacheProperties.Warmup warmup = cacheProperties.getWarmup();
+        if (!warmup.isEnabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        tasks.add(CompletableFuture.runAsync(() -> quietly(categoryService::listCategories), executor));
+        for (String sortOrder : warmup.getSortOrders()) {
+            tasks.add(CompletableFuture.runAsync(() -> warmPages(sortOrder, warmup), executor));
+        }
+        List<Long> topProducts = productAccessTracker.topProducts(warmup.getTopProducts());
+        tasks.add(CompletableFuture.runAsync(
+                () -> topProducts.forEach(id -> quietly(() -> productService.getProductById(id))), executor));
+
+        try {
+            CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new))
+                    .get(warmup.getTimeBudget().toMillis(), TimeUnit.MILLISECONDS);
+            log.info("Cache warm-up finished in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (TimeoutException ex) {
+            log.warn("Cache warm-up exceeded its {} budget, continuing in the background", warmup.getTimeBudget());
+        } catch (ExecutionException ex) {
+            log.warn("Cache warm-up failed: {}", ex.getCause().getMessage());
+        }
+    }
+
+    private void warmPages(String sortOrder, AppCacheProperties.Warmup warmup) {
+        String[] parts = sortOrder.split(":");
+        String sortBy = parts[0].trim();
+        String sortDir = parts.length > 1 ? parts[1].trim() : "asc";
+        for (int page = 0; page < warmup.getPages(); page++) {
+            int pageNumber = page;
+            // Una pagina vacia cierra el listado (el servicio lo indica con una excepcion).
+            if (!quietly(() -> productService.pageableProducts(pageNumber, warmup.getPageSize(), sortBy, sortDir))) {
+                return;
+            }
+        }
+    }
+
+    private static boolean quietly(Runnable load) {
+        try {
+            load.run();
+            return true;
+        } catch (RuntimeException ex) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.crud.config.cache;
+
+import com.crud.config.cache.cluster.RemoteInvalidationScope;
+import com.crud.dtos.response.CategoryResponse;
+import com.crud.entities.CategoryEntity;
+import com.crud.events.CategoryChangedEvent;
+import com.crud.util.AppConstants;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Objects;
+
+/**
+ * Aplica a las dos caches una escritura de categoria ya confirmada: la entrada de la categoria
+ * y la lista de categorias en {@code Categoria}, y en {@code Producto} solo los productos y
+ * paginas que la llevan embebida (ver {@link ProductCacheIndex}). Las escrituras que llegan
+ * de otro nodo tambien la expulsan de la cache de segundo nivel local de Hibernate.
+ */
+@Component
+@RequiredArgsConstructor
+public class CategoryCacheInvalidator {
+
+    private final CacheManager cacheManager;
+    private final ProductCacheIndex productCacheIndex;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        Long categoryId = event.getCategoryId();
+
+        if (RemoteInvalidationScope.isActive()) {
+            // La cache de segundo nivel de Hibernate es local: Hibernate solo la mantiene en el nodo que escribe.
+            entityManagerFactory.getCache().evict(CategoryEntity.class, categoryId);
+            entityManagerFactory.unwrap(SessionFactory.class).getCache().evictDefaultQueryRegion();
+        }
+
+        Cache categories = cacheManager.getCache(AppConstants.CACHE_CATEGORIA);
+        if (categories != null) {
+            categories.evict(categoryId);
+            categories.evict(SimpleKey.EMPTY);
+        }
+
+        Cache products = cacheManager.getCache(AppConstants.CACHE_PRODUCTO);
+        if (products == null || event.getBefore() == null) {
+            return;
+        }
+        if (event.getAfter() == null) {
+            // Sus productos se borraron con ella: se desplazan todas las paginas y cambian todos los conteos de facetas.
+            products.clear();
+            Cache facets = cacheManager.getCache(AppConstants.CACHE_PRODUCTO_FACETAS);
+            if (facets != null) {
+                facets.clear();
+            }
+        } else if (!sameContent(event.getBefore(), event.getAfter())) {
+            productCacheIndex.keysReferencingCategory(categoryId).forEach(products::evict);
+        }
+    }
+
+    private static boolean sameContent(CategoryResponse before, CategoryResponse after) {
+        return Objects.equals(before.getName(), after.getName());
+    }
+}
@@ -0,0 +1,164 @@
+package com.crud.config.cache;
+
+import com.crud.exceptions.BusinessException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Decorador single-flight para las lecturas {@code @Cacheable(sync = true)}: en un fallo solo
+ * la primera llamada ejecuta el loader; las concurrentes de la misma clave esperan su
+ * resultado hasta {@code timeout} en lugar de lanzar la misma consulta.
+ * <p>
+ * {@code evict} y {@code clear} desligan las cargas en curso de las claves que quitan: esa
+ * carga puede haber leido antes de la escritura que provoco la expulsion, asi que su resultado
+ * llega a quienes ya lo esperaban pero no se guarda, y las llamadas posteriores hacen una
+ * carga nueva en lugar de unirse a ella.
+ */
+public class CoalescingCache implements Cache {
+
+    private final Cache delegate;
+    private final Duration timeout;
+    private final ConcurrentHashMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Counter loads;
+    private final Counter coalesced;
+    private final Counter timeouts;
+
+    public CoalescingCache(Cache delegate, Duration timeout, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.timeout = timeout;
+        this.loads = meterRegistry.counter("cache.coalescing.loads", "cache", delegate.getName());
+        this.coalesced = meterRegistry.counter("cache.coalescing.coalesced", "cache", delegate.getName());
+        this.timeouts = meterRegistry.counter("cache.coalescing.timeouts", "cache", delegate.getName());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = delegate.get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        return load(key, valueLoader);
+    }
+
+    /**
+     * Ejecuta el loader y guarda el resultado, este o no la clave en cache; si ya hay una
+     * carga de la misma clave en curso, se une a ella.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T load(Object key, Callable<T> valueLoader) {
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(key, load);
+        if (leader != null) {
+            coalesced.increment();
+            return (T) await(key, valueLoader, leader);
+        }
+
+        loads.increment();
+        try {
+            T value;
+            try {
+                value = valueLoader.call();
+            } catch (Exception ex) {
+                throw new ValueRetrievalException(key, valueLoader, ex);
+            }
+            // Se guarda solo si la carga sigue registrada, y dentro del compute: un evict no puede colarse entre medias.
+            inFlight.computeIfPresent(key, (k, current) -> {
+                if (current != load) {
+                    return current;
+                }
+                delegate.put(key, value);
+                return null;
+            });
+            load.complete(value);
+            return value;
+        } catch (RuntimeException ex) {
+            load.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, load);
+        }
+    }
+
+    private Object await(Object key, Callable<?> valueLoader, CompletableFuture<Object> leader) {
+        try {
+            return leader.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            timeouts.increment();
+            throw new ValueRetrievalException(key, valueLoader, new BusinessException("P-503",
+                    HttpStatus.SERVICE_UNAVAILABLE, "Timed out waiting for a concurrent load of " + getName()));
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new ValueRetrievalException(key, valueLoader, ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(key, type);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        inFlight.remove(key);
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        inFlight.remove(key);
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        inFlight.clear();
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        inFlight.clear();
+        return delegate.invalidate();
+    }
+}
@@ -0,0 +1,92 @@
+package com.crud.config.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cuenta las lecturas del detalle de producto para que el siguiente arranque precargue los
+ * mas pedidos. Los conteos se escriben en {@code app.cache.warmup.snapshot-file} al parar y
+ * se leen (a la mitad, para que el trafico viejo se vaya olvidando) al arrancar.
+ */
+@Slf4j
+@Component
+public class ProductAccessTracker implements InitializingBean, DisposableBean {
+
+    private static final int MAX_TRACKED = 10_000;
+
+    private final Map<Long, LongAdder> counts = new ConcurrentHashMap<>();
+    private final AppCacheProperties cacheProperties;
+
+    public ProductAccessTracker(AppCacheProperties cacheProperties) {
+        this.cacheProperties = cacheProperties;
+    }
+
+    public void record(Long productId) {
+        if (counts.size() >= MAX_TRACKED && !counts.containsKey(productId)) {
+            prune();
+        }
+        counts.computeIfAbsent(productId, id -> new LongAdder()).increment();
+    }
+
+    public List<Long> topProducts(int limit) {
+        return counts.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<Long, LongAdder> entry) -> entry.getValue().sum()).reversed())
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    // Descarta la mitad menos pedida para que el mapa no crezca sin limite.
+    private synchronized void prune() {
+        if (counts.size() < MAX_TRACKED) {
+            return;
+        }
+        List<Long> keep = topProducts(MAX_TRACKED / 2);
+        counts.keySet().retainAll(keep);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Path snapshot = Path.of(cacheProperties.getWarmup().getSnapshotFile());
+        if (!Files.isReadable(snapshot)) {
+            return;
+        }
+        try {
+            for (String line : Files.readAllLines(snapshot, StandardCharsets.UTF_8)) {
+                String[] parts = line.split("=");
+                if (parts.length == 2) {
+                    LongAdder count = counts.computeIfAbsent(Long.valueOf(parts[0].trim()), id -> new LongAdder());
+                    count.add(Math.max(1, Long.parseLong(parts[1].trim()) / 2));
+                }
+            }
+        } catch (IOException | NumberFormatException ex) {
+            log.warn("Ignoring unreadable access snapshot {}: {}", snapshot, ex.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        Path snapshot = Path.of(cacheProperties.getWarmup().getSnapshotFile());
+        try (BufferedWriter writer = Files.newBufferedWriter(snapshot, StandardCharsets.UTF_8)) {
+            for (Long id : topProducts(cacheProperties.getWarmup().getTopProducts())) {
+                writer.write(id + "=" + counts.get(id).sum());
+                writer.newLine();
+            }
+        } catch (IOException ex) {
+            log.warn("Could not write access snapshot {}: {}", snapshot, ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.crud.config.cache;
+
+import com.crud.dtos.response.PageableResponse;
+import com.crud.dtos.response.ProductResponse;
+import com.crud.events.ProductChangedEvent;
+import com.crud.repositories.ProductSortField;
+import lombok.Getter;
+import org.springframework.data.domain.Sort;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Indice lateral de las entradas que hay en la cache {@code Producto}: que productos y
+ * categorias contiene cada pagina y que rango de la clave de orden cubre, ademas de la
+ * categoria de cada producto cacheado. Sirve para saber que entradas invalidan de verdad las
+ * escrituras de productos (sueltas o masivas) y de categorias.
+ */
+public class ProductCacheIndex implements CacheEntryListener {
+
+    /** Valor de orden de un campo que no sabemos comparar; siempre se trata como "puede solaparse". */
+    private static final Object UNKNOWN = new Object();
+    private static final int EVICT = Integer.MIN_VALUE;
+
+    private final Map<ProductPageKey, PageEntry> pages = new ConcurrentHashMap<>();
+    private final Map<Long, Long> productCategories = new ConcurrentHashMap<>();
+
+    @Override
+    public void onPut(Object key, Object value) {
+        if (key instanceof ProductPageKey pageKey && value instanceof PageableResponse<?> page) {
+            pages.put(pageKey, new PageEntry(pageKey, page));
+        } else if (key instanceof Long id && value instanceof ProductResponse product) {
+            Long categoryId = categoryId(product);
+            if (categoryId != null) {
+                productCategories.put(id, categoryId);
+            }
+        }
+    }
+
+    @Override
+    public void onRemoval(Object key) {
+        if (key instanceof ProductPageKey) {
+            pages.remove(key);
+        } else if (key instanceof Long) {
+            productCategories.remove(key);
+        }
+    }
+
+    @Override
+    public void onClear() {
+        pages.clear();
+        productCategories.clear();
+    }
+
+    public int size() {
+        return pages.size();
+    }
+
+    /**
+     * Entradas afectadas por un conjunto de escrituras de productos confirmadas, unidas en un
+     * solo plan: una pagina se expulsa en cuanto una escritura mueve sus filas; si no, se
+     * parchean sus totales con la suma de las altas y bajas que caen despues de ella.
+     */
+    public InvalidationPlan plan(Collection<ProductChangedEvent> changes) {
+        InvalidationPlan plan = new InvalidationPlan();
+        for (ProductChangedEvent change : changes) {
+            plan.evictions.add(change.getBefore() != null ? change.getBefore().getId() : change.getAfter().getId());
+        }
+
+        pages.forEach((key, page) -> {
+            int delta = 0;
+            for (ProductChangedEvent change : changes) {
+                int changeDelta = affects(page, key.getSortBy(), change.getBefore(), change.getAfter());
+                if (changeDelta == EVICT) {
+                    plan.evictions.add(key);
+                    return;
+                }
+                delta += changeDelta;
+            }
+            if (delta != 0) {
+                plan.recounts.put(key, delta);
+            }
+        });
+        return plan;
+    }
+
+    /**
+     * {@link #EVICT} si la escritura mueve las filas de la pagina; si no, cuanto cambia su total.
+     *
+     * @param before estado del producto antes de la escritura, null en un alta
+     * @param after  estado del producto despues de la escritura, null en una baja
+     */
+    private static int affects(PageEntry page, String field, ProductResponse before, ProductResponse after) {
+        Long id = before != null ? before.getId() : after.getId();
+        if (page.productIds.contains(id)) {
+            return EVICT;
+        }
+        if (before != null && after != null) {
+            // Modificacion: todas las paginas entre la posicion vieja y la nueva se desplazan una fila.
+            Object oldValue = sortValue(before, field);
+            Object newValue = sortValue(after, field);
+            if (oldValue != UNKNOWN && oldValue != null && oldValue.equals(newValue)) {
+                return 0;
+            }
+            return page.overlaps(oldValue, newValue) ? EVICT : 0;
+        }
+        // Alta/baja: las paginas posteriores se desplazan, las anteriores solo cambian sus totales.
+        Object value = sortValue(after != null ? after : before, field);
+        if (!page.endsBefore(value)) {
+            return EVICT;
+        }
+        return before == null ? 1 : -1;
+    }
+
+    /**
+     * Productos y paginas cacheados que llevan embebida la categoria.
+     */
+    public Set<Object> keysReferencingCategory(Long categoryId) {
+        Set<Object> keys = new HashSet<>();
+        productCategories.forEach((id, category) -> {
+            if (category.equals(categoryId)) {
+                keys.add(id);
+            }
+        });
+        pages.forEach((key, page) -> {
+            if (page.categoryIds.contains(categoryId)) {
+                keys.add(key);
+            }
+        });
+        return keys;
+    }
+
+    private static Long categoryId(ProductResponse product) {
+        return product.getCategory() != null ? product.getCategory().getId() : null;
+    }
+
+    private static Object sortValue(ProductResponse product, String field) {
+        Optional<ProductSortField> sortField = ProductSortField.find(field);
+        return sortField.isPresent() ? sortField.get().valueOf(product) : UNKNOWN;
+    }
+
+    /**
+     * Devuelve un numero negativo/positivo solo si {@code a} va seguro antes/despues de
+     * {@code b}. Los textos tienen que coincidir con y sin distinguir mayusculas, porque
+     * aqui no se conoce la collation de la base de datos.
+     */
+    private static int definiteCompare(Object a, Object b) {
+        if (a == null || b == null || a == UNKNOWN || b == UNKNOWN) {
+            return 0;
+        }
+        if (a instanceof String x && b instanceof String y) {
+            int sensitive = Integer.signum(x.compareTo(y));
+            int insensitive = Integer.signum(String.CASE_INSENSITIVE_ORDER.compare(x, y));
+            return sensitive == insensitive ? sensitive : 0;
+        }
+        if (a instanceof Number x && b instanceof Number y) {
+            return Integer.signum(Double.compare(x.doubleValue(), y.doubleValue()));
+        }
+        return 0;
+    }
+
+    private static final class PageEntry {
+
+        private final Set<Long> productIds = new HashSet<>();
+        private final Set<Long> categoryIds = new HashSet<>();
+        private final Sort.Direction direction;
+        private final boolean firstPage;
+        private final boolean lastPage;
+        private final Object firstValue;
+        private final Object lastValue;
+
+        private PageEntry(ProductPageKey key, PageableResponse<?> page) {
+            List<?> content = page.getContent();
+            for (Object row : content) {
+                ProductResponse product = (ProductResponse) row;
+                productIds.add(product.getId());
+                Long categoryId = categoryId(product);
+                if (categoryId != null) {
+                    categoryIds.add(categoryId);
+                }
+            }
+            this.direction = key.getDirection();
+            this.firstPage = key.getPageNumber() == 0;
+            this.lastPage = page.isLast() || content.isEmpty();
+            this.firstValue = content.isEmpty() ? UNKNOWN : sortValue((ProductResponse) content.get(0), key.getSortBy());
+            this.lastValue = content.isEmpty() ? UNKNOWN
+                    : sortValue((ProductResponse) content.get(content.size() - 1), key.getSortBy());
+        }
+
+        private boolean before(Object a, Object b) {
+            int cmp = definiteCompare(a, b);
+            return direction.isAscending() ? cmp < 0 : cmp > 0;
+        }
+
+        boolean endsBefore(Object value) {
+            return !lastPage && before(lastValue, value);
+        }
+
+        boolean startsAfter(Object value) {
+            return !firstPage && before(value, firstValue);
+        }
+
+        boolean overlaps(Object a, Object b) {
+            return !(endsBefore(a) && endsBefore(b)) && !(startsAfter(a) && startsAfter(b));
+        }
+    }
+
+    @Getter
+    public static final class InvalidationPlan {
+
+        private final Set<Object> evictions = new HashSet<>();
+        /** Paginas cuyas filas no cambian, con cuanto se movieron sus totales. */
+        private final Map<ProductPageKey, Integer> recounts = new HashMap<>();
+    }
+}
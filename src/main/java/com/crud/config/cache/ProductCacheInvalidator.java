@@ -0,0 +1,126 @@
+package com.crud.config.cache;
+
+import com.crud.config.cache.cluster.SharedCacheTier;
+import com.crud.dtos.response.PageableResponse;
+import com.crud.events.ProductBulkChangedEvent;
+import com.crud.events.ProductChangedEvent;
+import com.crud.util.AppConstants;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Invalida por clave la cache {@code Producto} cuando se confirma una escritura de producto:
+ * la entrada del producto, las paginas que lo contenian y las paginas cuyas filas se desplazan
+ * por ella. A las paginas anteriores a un alta/baja solo se les parchean los totales, con un
+ * replace condicional en L1 para no volver a meter una pagina expulsada entretanto; la copia
+ * de la L2 compartida no se puede parchear asi y se expulsa.
+ * Una sentencia masiva se planifica entera; si no se conocen sus filas se vacia la cache.
+ * Los conteos de facetas ({@code ProductoFacetas}) se vacian en cada escritura.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductCacheInvalidator {
+
+    private final CacheManager cacheManager;
+    private final ProductCacheIndex productCacheIndex;
+    private final ObjectProvider<SharedCacheTier> sharedCacheTier;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        apply(List.of(event));
+        clearFacets();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsChanged(ProductBulkChangedEvent event) {
+        clearFacets();
+        if (event.isComplete()) {
+            apply(event.getChanges());
+            return;
+        }
+        Cache cache = cacheManager.getCache(AppConstants.CACHE_PRODUCTO);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Expulsa, sin parchear totales, todas las entradas que afectan los cambios confirmados. Se
+     * puede repetir: se usa en una segunda pasada por si una replica atrasada las relleno con datos viejos.
+     */
+    public void evictStale(ProductBulkChangedEvent event) {
+        clearFacets();
+        Cache cache = cacheManager.getCache(AppConstants.CACHE_PRODUCTO);
+        if (cache == null) {
+            return;
+        }
+        if (!event.isComplete()) {
+            cache.clear();
+            return;
+        }
+        ProductCacheIndex.InvalidationPlan plan = productCacheIndex.plan(event.getChanges());
+        plan.getEvictions().forEach(cache::evict);
+        plan.getRecounts().keySet().forEach(cache::evict);
+    }
+
+    // Cualquier escritura puede cambiar los conteos de cualquier filtro.
+    private void clearFacets() {
+        Cache facets = cacheManager.getCache(AppConstants.CACHE_PRODUCTO_FACETAS);
+        if (facets != null) {
+            facets.clear();
+        }
+    }
+
+    private void apply(List<ProductChangedEvent> changes) {
+        Cache cache = cacheManager.getCache(AppConstants.CACHE_PRODUCTO);
+        if (cache == null || changes.isEmpty()) {
+            return;
+        }
+        ProductCacheIndex.InvalidationPlan plan = productCacheIndex.plan(changes);
+        plan.getEvictions().forEach(cache::evict);
+
+        ConcurrentMap<Object, Object> entries = localEntries(cache);
+        SharedCacheTier shared = sharedCacheTier.getIfAvailable();
+        plan.getRecounts().forEach((key, delta) -> {
+            if (entries == null) {
+                cache.evict(key);
+                return;
+            }
+            // Se lee por la cache (que descarta lo caducado) y replace(key, page, ...) solo si sigue siendo esa pagina:
+            // una expulsion o recarga concurrente gana. Si no se puede parchear, se expulsa.
+            PageableResponse<?> page = cache.get(key, PageableResponse.class);
+            PageableResponse<?> patched = page != null ? recount(page, delta) : null;
+            if (patched != null && entries.replace(key, page, patched)) {
+                productCacheIndex.onPut(key, patched);
+            } else {
+                cache.evict(key);
+            }
+            if (shared != null) {
+                shared.evict(cache.getName(), key);
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ConcurrentMap<Object, Object> localEntries(Cache cache) {
+        Object nativeCache = cache.getNativeCache();
+        if (nativeCache instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+            return (ConcurrentMap<Object, Object>) caffeine.asMap();
+        }
+        return nativeCache instanceof ConcurrentMap<?, ?> map ? (ConcurrentMap<Object, Object>) map : null;
+    }
+
+    private static <T> PageableResponse<T> recount(PageableResponse<T> page, int delta) {
+        long totalElements = Math.max(0, page.getTotalElements() + delta);
+        int totalPages = page.getPageSize() == 0 ? 1 : (int) Math.ceil((double) totalElements / page.getPageSize());
+        return new PageableResponse<>(page.getContent(), page.getPageNumber(), page.getPageSize(),
+                totalElements, totalPages, page.getPageNumber() + 1 >= totalPages);
+    }
+}
@@ -0,0 +1,47 @@
+package com.crud.config.cache;
+
+import com.crud.util.AppConstants;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.StringUtils;
+
+import java.io.Serializable;
+
+/**
+ * Clave normalizada de una pagina del listado de productos, para que {@code sortDir=asc} y
+ * {@code sortDir=ASC} (o un campo de orden omitido) compartan entrada.
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+public final class ProductPageKey implements Serializable {
+
+    private final int pageNumber;
+    private final int pageSize;
+    private final String sortBy;
+    private final Sort.Direction direction;
+
+    private ProductPageKey(int pageNumber, int pageSize, String sortBy, Sort.Direction direction) {
+        this.pageNumber = pageNumber;
+        this.pageSize = pageSize;
+        this.sortBy = sortBy;
+        this.direction = direction;
+    }
+
+    public static ProductPageKey of(int pageNumber, int pageSize, String sortBy, String sortDir) {
+        String field = StringUtils.hasText(sortBy) ? sortBy.trim() : AppConstants.ORDENAR_POR_DEFECTO;
+        // La misma regla que el listado: todo lo que no sea ASC ordena descendente.
+        Sort.Direction direction = Sort.Direction.ASC.name().equalsIgnoreCase(
+                StringUtils.hasText(sortDir) ? sortDir.trim() : AppConstants.ORDENAR_DIRECCION_POR_DEFECTO)
+                ? Sort.Direction.ASC : Sort.Direction.DESC;
+        return new ProductPageKey(pageNumber, pageSize, field, direction);
+    }
+
+    /** Pagina que pide {@code GET /api/products} sin parametros. */
+    public static ProductPageKey defaultFirstPage() {
+        return of(Integer.parseInt(AppConstants.NUMERO_DE_PAGINA_POR_DEFECTO),
+                Integer.parseInt(AppConstants.MEDIDA_DE_PAGINA_POR_DEFECTO), null, null);
+    }
+}
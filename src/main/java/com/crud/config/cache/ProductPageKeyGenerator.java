@@ -0,0 +1,16 @@
+package com.crud.config.cache;
+
+import org.springframework.cache.interceptor.KeyGenerator;
+
+import java.lang.reflect.Method;
+
+/**
+ * Generador de claves para {@code pageableProducts(pageNo, pageSize, sortBy, sortDir)}.
+ */
+public class ProductPageKeyGenerator implements KeyGenerator {
+
+    @Override
+    public Object generate(Object target, Method method, Object... params) {
+        return ProductPageKey.of((Integer) params[0], (Integer) params[1], (String) params[2], (String) params[3]);
+    }
+}
@@ -0,0 +1,204 @@
+package com.crud.config.cache;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Refresh-ahead sobre {@link CoalescingCache}, segun la edad de la entrada en L1:
+ * <ul>
+ *     <li>mas joven que {@code refreshAfter}: se sirve tal cual;</li>
+ *     <li>mas vieja, pero mas joven que {@code expireAfter}: se sirve al momento mientras
+ *     una recarga en segundo plano la sustituye;</li>
+ *     <li>mas vieja que {@code expireAfter}: se recarga de forma sincrona; si la recarga falla
+ *     se sigue sirviendo el valor viejo hasta {@code expireAfter + staleIfError}.</li>
+ * </ul>
+ * Solo las claves que acepta {@code refreshable} tienen los dos ultimos casos; las demas
+ * caducan a los {@code expireAfter} y se recargan en el siguiente fallo. Las lecturas simples
+ * ({@code get(key)}, {@code get(key, type)}) nunca devuelven una entrada mas vieja que
+ * {@code expireAfter}. La cache de Caffeine de debajo se debe construir con {@link #expiry},
+ * que solo conserva las claves refrescables durante {@code expireAfter + staleIfError}.
+ */
+@Slf4j
+public class RefreshAheadCache implements Cache {
+
+    private final CoalescingCache delegate;
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Object> l1;
+    private final long refreshAfterNanos;
+    private final long expireAfterNanos;
+    private final long staleIfErrorNanos;
+    private final Predicate<Object> refreshable;
+    private final Executor executor;
+    private final Set<Object> refreshing = ConcurrentHashMap.newKeySet();
+    private final Counter refreshes;
+    private final Counter staleServed;
+
+    @SuppressWarnings("unchecked")
+    public RefreshAheadCache(CoalescingCache delegate, Duration refreshAfter, Duration expireAfter, Duration staleIfError,
+                             Predicate<Object> refreshable, Executor executor, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.l1 = (com.github.benmanes.caffeine.cache.Cache<Object, Object>) delegate.getNativeCache();
+        this.refreshAfterNanos = refreshAfter.toNanos();
+        this.expireAfterNanos = expireAfter.toNanos();
+        this.staleIfErrorNanos = staleIfError != null ? staleIfError.toNanos() : 0;
+        this.refreshable = refreshable;
+        this.executor = executor;
+        this.refreshes = meterRegistry.counter("cache.refresh.background", "cache", delegate.getName());
+        this.staleServed = meterRegistry.counter("cache.refresh.stale-served", "cache", delegate.getName());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = delegate.get(key);
+        if (cached == null) {
+            return delegate.load(key, valueLoader);
+        }
+
+        long age = ageOf(key);
+        if (!refreshable.test(key)) {
+            // Caffeine la conserva hasta expireAfter + staleIfError; para esta clave ya caduco en expireAfter.
+            return age < expireAfterNanos ? (T) cached.get() : delegate.load(key, valueLoader);
+        }
+        if (age < refreshAfterNanos) {
+            return (T) cached.get();
+        }
+        if (age < expireAfterNanos) {
+            refreshInBackground(key, valueLoader);
+            return (T) cached.get();
+        }
+        try {
+            return delegate.load(key, valueLoader);
+        } catch (RuntimeException ex) {
+            if (age < expireAfterNanos + staleIfErrorNanos) {
+                staleServed.increment();
+                log.warn("Serving stale {} entry {} after failed reload: {}", getName(), key, ex.getMessage());
+                return (T) cached.get();
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Vida por clave de la cache de Caffeine bajo un {@code RefreshAheadCache}: las claves
+     * refrescables se conservan {@code expireAfter + staleIfError}, las demas {@code expireAfter}.
+     * Las lecturas no la alargan y cada escritura la reinicia.
+     */
+    public static Expiry<Object, Object> expiry(Duration expireAfter, Duration staleIfError, Predicate<Object> refreshable) {
+        long expireAfterNanos = expireAfter.toNanos();
+        long keptNanos = expireAfterNanos + (staleIfError != null ? staleIfError.toNanos() : 0);
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(Object key, Object value, long currentTime) {
+                return refreshable.test(key) ? keptNanos : expireAfterNanos;
+            }
+
+            @Override
+            public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+                return expireAfterCreate(key, value, currentTime);
+            }
+
+            @Override
+            public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+
+    // Edad desde la ultima escritura: lo que Caffeine le da de vida a la clave menos lo que le queda.
+    private long ageOf(Object key) {
+        long lifetime = refreshable.test(key) ? expireAfterNanos + staleIfErrorNanos : expireAfterNanos;
+        return l1.policy().expireVariably()
+                .map(expiration -> lifetime - expiration.getExpiresAfter(key, TimeUnit.NANOSECONDS).orElse(lifetime))
+                .orElse(0L);
+    }
+
+    private void refreshInBackground(Object key, Callable<?> valueLoader) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    refreshes.increment();
+                    delegate.load(key, valueLoader);
+                } catch (RuntimeException ex) {
+                    log.warn("Background refresh of {} entry {} failed: {}", getName(), key, ex.getMessage());
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            refreshing.remove(key);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    // Pasado expireAfter ya no es un acierto: solo get(key, loader) la sirve, y solo si falla la recarga.
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper cached = delegate.get(key);
+        return cached != null && ageOf(key) < expireAfterNanos ? cached : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper cached = get(key);
+        Object value = cached != null ? cached.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return delegate.invalidate();
+    }
+}
@@ -0,0 +1,15 @@
+package com.crud.config.cache.cluster;
+
+import java.util.function.Consumer;
+
+/**
+ * Transporte para avisar a los demas nodos de las escrituras confirmadas, para que cada uno
+ * invalide sus propias entradas de L1. Las implementaciones entregan cada mensaje a todos
+ * los suscriptores, incluido el nodo que lo publica.
+ */
+public interface CacheInvalidationBus {
+
+    void publish(CacheInvalidationMessage message);
+
+    void subscribe(Consumer<CacheInvalidationMessage> subscriber);
+}
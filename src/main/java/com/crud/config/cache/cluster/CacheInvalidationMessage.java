@@ -0,0 +1,18 @@
+package com.crud.config.cache.cluster;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.Serializable;
+
+/**
+ * Sobre que se difunde por el {@link CacheInvalidationBus}: un evento de dominio confirmado
+ * (cambio de producto o de categoria) y el nodo que lo produjo.
+ */
+@Getter
+@AllArgsConstructor
+public class CacheInvalidationMessage implements Serializable {
+
+    private final String origin;
+    private final Serializable event;
+}
@@ -0,0 +1,56 @@
+package com.crud.config.cache.cluster;
+
+import com.crud.events.CategoryChangedEvent;
+import com.crud.events.ProductBulkChangedEvent;
+import com.crud.events.ProductChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import java.io.Serializable;
+
+/**
+ * Reenvia a los demas nodos los cambios confirmados de productos y categorias y reproduce
+ * como eventos locales los que llegan de ellos, para que los invalidadores de cada nodo (y
+ * cualquier otro listener de esos eventos) vean la misma secuencia de cambios.
+ */
+@RequiredArgsConstructor
+public class ClusterCacheRelay {
+
+    private final CacheInvalidationBus bus;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String nodeId;
+
+    @PostConstruct
+    public void subscribe() {
+        bus.subscribe(this::onMessage);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        forward(event);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsChanged(ProductBulkChangedEvent event) {
+        forward(event);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        forward(event);
+    }
+
+    private void forward(Serializable event) {
+        if (!RemoteInvalidationScope.isActive()) {
+            bus.publish(new CacheInvalidationMessage(nodeId, event));
+        }
+    }
+
+    void onMessage(CacheInvalidationMessage message) {
+        if (!nodeId.equals(message.getOrigin())) {
+            RemoteInvalidationScope.run(() -> eventPublisher.publishEvent(message.getEvent()));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.crud.config.cache.cluster;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sustituto en la JVM de un almacen L2 compartido: las instancias creadas con el mismo canal
+ * ven las mismas entradas. Las entradas caducan a los {@code ttl}, lo que tambien acota cuanto
+ * puede seguir obsoleta en L2 una pagina que ya no tiene ningun nodo en su indice.
+ */
+public class InMemorySharedCacheTier implements SharedCacheTier {
+
+    private static final Map<String, Map<String, Cache<Object, Object>>> CHANNELS = new ConcurrentHashMap<>();
+
+    private final Map<String, Cache<Object, Object>> caches;
+    private final Duration ttl;
+    private final long maximumSize;
+
+    public InMemorySharedCacheTier(String channel, Duration ttl, long maximumSize) {
+        this.caches = CHANNELS.computeIfAbsent(channel, name -> new ConcurrentHashMap<>());
+        this.ttl = ttl;
+        this.maximumSize = maximumSize;
+    }
+
+    @Override
+    public org.springframework.cache.Cache.ValueWrapper get(String cacheName, Object key) {
+        Object value = cache(cacheName).getIfPresent(key);
+        if (value == null) {
+            return null;
+        }
+        return new SimpleValueWrapper(value == NullValue.INSTANCE ? null : value);
+    }
+
+    @Override
+    public void put(String cacheName, Object key, Object value) {
+        cache(cacheName).put(key, value != null ? value : NullValue.INSTANCE);
+    }
+
+    @Override
+    public void evict(String cacheName, Object key) {
+        cache(cacheName).invalidate(key);
+    }
+
+    @Override
+    public void clear(String cacheName) {
+        cache(cacheName).invalidateAll();
+    }
+
+    private Cache<Object, Object> cache(String cacheName) {
+        return caches.computeIfAbsent(cacheName, name -> Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .build());
+    }
+}
@@ -0,0 +1,47 @@
+package com.crud.config.cache.cluster;
+
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Bus dentro de la JVM: cada instancia unida al mismo canal recibe los mensajes de las demas.
+ * Permite que varios contextos de la aplicacion se comporten como un cluster en local y en los tests.
+ */
+public class LoopbackInvalidationBus implements CacheInvalidationBus, DisposableBean {
+
+    private static final Map<String, Set<LoopbackInvalidationBus>> CHANNELS = new ConcurrentHashMap<>();
+
+    private final String channel;
+    private final List<Consumer<CacheInvalidationMessage>> subscribers = new CopyOnWriteArrayList<>();
+
+    public LoopbackInvalidationBus(String channel) {
+        this.channel = channel;
+        CHANNELS.computeIfAbsent(channel, name -> ConcurrentHashMap.newKeySet()).add(this);
+    }
+
+    @Override
+    public void publish(CacheInvalidationMessage message) {
+        for (LoopbackInvalidationBus member : CHANNELS.getOrDefault(channel, Set.of())) {
+            member.subscribers.forEach(subscriber -> subscriber.accept(message));
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidationMessage> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    @Override
+    public void destroy() {
+        Set<LoopbackInvalidationBus> members = CHANNELS.get(channel);
+        if (members != null) {
+            members.remove(this);
+        }
+    }
+}
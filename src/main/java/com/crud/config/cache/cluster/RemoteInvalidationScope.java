@@ -0,0 +1,27 @@
+package com.crud.config.cache.cluster;
+
+/**
+ * Marca el hilo actual como aplicando una invalidacion recibida de otro nodo. Dentro del
+ * ambito {@link TwoTierCache} ni lee ni escribe en L2, solo expulsa de ella, y
+ * {@link ClusterCacheRelay} no vuelve a difundir.
+ */
+public final class RemoteInvalidationScope {
+
+    private static final ThreadLocal<Boolean> ACTIVE = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private RemoteInvalidationScope() {
+    }
+
+    public static boolean isActive() {
+        return ACTIVE.get();
+    }
+
+    public static void run(Runnable action) {
+        ACTIVE.set(Boolean.TRUE);
+        try {
+            action.run();
+        } finally {
+            ACTIVE.remove();
+        }
+    }
+}
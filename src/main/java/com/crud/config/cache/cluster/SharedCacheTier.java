@@ -0,0 +1,18 @@
+package com.crud.config.cache.cluster;
+
+import org.springframework.cache.Cache;
+
+/**
+ * Nivel L2 compartido por todos los nodos (p. ej. un almacen clave/valor remoto). Claves y
+ * valores tienen que ser {@link java.io.Serializable} para las implementaciones en red reales.
+ */
+public interface SharedCacheTier {
+
+    Cache.ValueWrapper get(String cacheName, Object key);
+
+    void put(String cacheName, Object key, Object value);
+
+    void evict(String cacheName, Object key);
+
+    void clear(String cacheName);
+}
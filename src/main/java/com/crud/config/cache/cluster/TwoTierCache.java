@@ -0,0 +1,111 @@
+package com.crud.config.cache.cluster;
+
+import com.crud.config.cache.CacheEntryListener;
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Near cache: las lecturas van primero a la L1 del proceso y si fallan a la L2 compartida,
+ * subiendo a L1 lo que encuentran. Escrituras y expulsiones van a los dos niveles. Mientras se
+ * aplica una invalidacion remota (ver {@link RemoteInvalidationScope}) lecturas y escrituras se
+ * quedan en L1, pero las expulsiones siguen llegando a L2: el nodo que escribio solo expulso las
+ * claves de su indice, y una pagina cacheada por otro nodo solo la conoce el indice de ese nodo.
+ */
+public class TwoTierCache implements Cache {
+
+    private final Cache local;
+    private final SharedCacheTier shared;
+    private final CacheEntryListener listener;
+
+    public TwoTierCache(Cache local, SharedCacheTier shared, CacheEntryListener listener) {
+        this.local = local;
+        this.shared = shared;
+        this.listener = listener;
+    }
+
+    @Override
+    public String getName() {
+        return local.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper value = local.get(key);
+        if (value != null || RemoteInvalidationScope.isActive()) {
+            return value;
+        }
+        value = shared.get(getName(), key);
+        if (value != null) {
+            local.put(key, value.get());
+            if (listener != null) {
+                listener.onPut(key, value.get());
+            }
+        }
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper value = get(key);
+        if (value == null || value.get() == null) {
+            return null;
+        }
+        if (type != null && !type.isInstance(value.get())) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value.get());
+        }
+        return (T) value.get();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper value = get(key);
+        if (value != null) {
+            return (T) value.get();
+        }
+        T loaded;
+        try {
+            loaded = valueLoader.call();
+        } catch (Exception ex) {
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        }
+        put(key, loaded);
+        return loaded;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        local.put(key, value);
+        if (!RemoteInvalidationScope.isActive()) {
+            shared.put(getName(), key, value);
+        }
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = get(key);
+        if (existing == null) {
+            put(key, value);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        local.evict(key);
+        shared.evict(getName(), key);
+    }
+
+    @Override
+    public void clear() {
+        local.clear();
+        shared.clear(getName());
+    }
+}
@@ -0,0 +1,69 @@
+package com.crud.config.datasource;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Manda las conexiones de las transacciones de solo lectura a la replica y todo lo demas al
+ * primario. Las lecturas tambien van al primario mientras la replica va mas retrasada de lo
+ * tolerado ({@link ReplicaLagMonitor}) o mientras el cliente actual esta fijado al primario
+ * tras su propia escritura ({@link ReadYourWrites}).
+ * <p>
+ * La decision se toma al pedir la conexion, asi que este data source tiene que ir detras de un
+ * {@code LazyConnectionDataSourceProxy}: el transaction manager pide la conexion antes de
+ * publicar el flag de solo lectura de la transaccion. Las metricas se registran como
+ * {@link MeterBinder}: el propio meter registry depende de todos los data sources.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements MeterBinder {
+
+    enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReadYourWrites readYourWrites;
+    private final LongAdder primaryReads = new LongAdder();
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor,
+                                      ReadYourWrites readYourWrites) {
+        this.lagMonitor = lagMonitor;
+        this.readYourWrites = readYourWrites;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("datasource.routing", primaryReads, LongAdder::doubleValue)
+                .tags("target", "primary", "access", "read").register(registry);
+        FunctionCounter.builder("datasource.routing", replicaReads, LongAdder::doubleValue)
+                .tags("target", "replica", "access", "read").register(registry);
+        FunctionCounter.builder("datasource.routing", writes, LongAdder::doubleValue)
+                .tags("target", "primary", "access", "write").register(registry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            // Sin transaccion (DDL de Hibernate, autocommit) o de escritura: siempre el primario.
+            readYourWrites.onWrite();
+            writes.increment();
+            return Target.PRIMARY;
+        }
+        if (readYourWrites.isSticky() || !lagMonitor.isReplicaUsable()) {
+            primaryReads.increment();
+            return Target.PRIMARY;
+        }
+        replicaReads.increment();
+        return Target.REPLICA;
+    }
+}
@@ -0,0 +1,99 @@
+package com.crud.config.datasource;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.time.Duration;
+
+/**
+ * Read-your-writes para los clientes HTTP: cuando se confirma una transaccion de escritura de
+ * una peticion, el resto de esa peticion y las siguientes del cliente durante
+ * {@code sticky-window} leen del primario. El fin de la ventana viaja en una cookie, asi que
+ * lo respeta cualquier nodo; se ignoran los valores mas alla de una ventana. El trabajo fuera
+ * de una peticion nunca queda fijado.
+ */
+public class ReadYourWrites {
+
+    private static final String STICKY_UNTIL = ReadYourWrites.class.getName() + ".UNTIL";
+
+    private final String cookieName;
+    private final Duration window;
+
+    public ReadYourWrites(String cookieName, Duration window) {
+        this.cookieName = cookieName;
+        this.window = window;
+    }
+
+    /**
+     * Se llama cuando la transaccion actual toma una conexion del primario: fija al cliente al
+     * primario cuando (y solo si) la transaccion se confirma.
+     */
+    void onWrite() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive() || current() == null
+                || TransactionSynchronizationManager.getSynchronizations().stream().anyMatch(StickOnCommit.class::isInstance)) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new StickOnCommit());
+    }
+
+    boolean isSticky() {
+        ServletRequestAttributes attributes = current();
+        if (attributes == null) {
+            return false;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        long now = System.currentTimeMillis();
+        Object until = request.getAttribute(STICKY_UNTIL);
+        if (until instanceof Long value) {
+            return now < value;
+        }
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if (cookieName.equals(cookie.getName())) {
+                try {
+                    long value = Long.parseLong(cookie.getValue());
+                    return now < value && value - now <= window.toMillis();
+                } catch (NumberFormatException ex) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void stick() {
+        ServletRequestAttributes attributes = current();
+        if (attributes == null) {
+            return;
+        }
+        long until = System.currentTimeMillis() + window.toMillis();
+        attributes.getRequest().setAttribute(STICKY_UNTIL, until);
+        HttpServletResponse response = attributes.getResponse();
+        if (response != null && !response.isCommitted()) {
+            response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(cookieName, String.valueOf(until))
+                    .path("/").maxAge(window).httpOnly(true).sameSite("Lax").build().toString());
+        }
+    }
+
+    private class StickOnCommit implements TransactionSynchronization {
+
+        @Override
+        public void afterCommit() {
+            stick();
+        }
+    }
+
+    private static ServletRequestAttributes current() {
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes ? attributes : null;
+    }
+}
@@ -0,0 +1,89 @@
+package com.crud.config.datasource;
+
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Decorador mas externo de la cache cuando hay replica: un cliente dentro de su ventana fija
+ * ({@link ReadYourWrites}) nunca lee de la cache. Hasta que la replica se pone al dia, un fallo
+ * de otro cliente puede haber cacheado desde ella el valor anterior a la escritura, y al
+ * cliente fijado se le serviria ese en lugar del suyo. Sus cargas van al primario y el
+ * resultado se guarda, asi que el valor nuevo sustituye tambien al viejo para los demas.
+ */
+public class ReadYourWritesCache implements Cache {
+
+    private final Cache delegate;
+    private final ReadYourWrites readYourWrites;
+
+    public ReadYourWritesCache(Cache delegate, ReadYourWrites readYourWrites) {
+        this.delegate = delegate;
+        this.readYourWrites = readYourWrites;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return readYourWrites.isSticky() ? null : delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return readYourWrites.isSticky() ? null : delegate.get(key, type);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        if (!readYourWrites.isSticky()) {
+            return delegate.get(key, valueLoader);
+        }
+        // Sin coalescer: una carga en curso de otro cliente puede venir de la replica.
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception ex) {
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        }
+        delegate.put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return delegate.invalidate();
+    }
+}
@@ -0,0 +1,95 @@
+package com.crud.config.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Decide cada {@code app.datasource.replica.lag-check-interval} si la replica puede servir
+ * lecturas: tiene que responder y no ir mas retrasada que {@code max-lag}. Hasta la primera
+ * comprobacion correcta, y siempre que una falla, las lecturas van al primario.
+ */
+@Slf4j
+public class ReplicaLagMonitor implements InitializingBean, MeterBinder {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+
+    private final DataSource replica;
+    private final String lagQuery;
+    private final Duration maxLag;
+    private volatile boolean usable;
+    private volatile double lagSeconds = Double.NaN;
+
+    public ReplicaLagMonitor(DataSource replica, ReplicaProperties properties) {
+        this.replica = replica;
+        this.lagQuery = properties.getLagQuery();
+        this.maxLag = properties.getMaxLag();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("datasource.replica.lag", this, monitor -> monitor.lagSeconds).baseUnit("seconds").register(registry);
+        Gauge.builder("datasource.replica.usable", this, monitor -> monitor.usable ? 1 : 0).register(registry);
+    }
+
+    public boolean isReplicaUsable() {
+        return usable;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        check();
+    }
+
+    @Scheduled(initialDelayString = "${app.datasource.replica.lag-check-interval:PT2S}",
+            fixedDelayString = "${app.datasource.replica.lag-check-interval:PT2S}")
+    public void check() {
+        boolean wasUsable = usable;
+        try (Connection connection = replica.getConnection()) {
+            Duration lag = measure(connection);
+            lagSeconds = lag.toMillis() / 1000.0;
+            usable = lag.compareTo(maxLag) <= 0;
+            if (usable != wasUsable) {
+                log.info("Read replica {} (lag {} ms, tolerance {} ms)", usable ? "in use" : "bypassed",
+                        lag.toMillis(), maxLag.toMillis());
+            }
+        } catch (SQLException | RuntimeException ex) {
+            lagSeconds = Double.NaN;
+            usable = false;
+            if (wasUsable) {
+                log.warn("Read replica bypassed: {}", ex.getMessage());
+            }
+        }
+    }
+
+    private Duration measure(Connection connection) throws SQLException {
+        if (!StringUtils.hasText(lagQuery)) {
+            if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                throw new SQLException("replica connection is not valid");
+            }
+            return Duration.ZERO;
+        }
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(lagQuery)) {
+            if (!rs.next()) {
+                throw new SQLException("replica lag query returned no rows");
+            }
+            // NULL (p. ej. replicacion detenida) cuenta como retraso desconocido.
+            double seconds = rs.getDouble(1);
+            if (rs.wasNull()) {
+                throw new SQLException("replica lag is unknown");
+            }
+            return Duration.ofMillis(Math.round(Math.max(0, seconds) * 1000));
+        }
+    }
+}
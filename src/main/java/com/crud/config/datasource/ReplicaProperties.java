@@ -0,0 +1,37 @@
+package com.crud.config.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Replica de lectura para las transacciones de solo lectura, leida de
+ * {@code app.datasource.replica.*}. El primario sigue siendo {@code spring.datasource.*}; la
+ * configuracion del pool de cada uno va en {@code spring.datasource.hikari.*} y
+ * {@code app.datasource.replica.hikari.*}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.datasource.replica")
+public class ReplicaProperties {
+
+    private boolean enabled;
+    private String url;
+    private String username;
+    private String password;
+    private String driverClassName;
+    /** Mayor retraso de replicacion con el que las lecturas siguen yendo a la replica. */
+    private Duration maxLag = Duration.ofSeconds(2);
+    /**
+     * Consulta que se ejecuta en la replica y devuelve su retraso en segundos (p. ej. de una
+     * tabla de heartbeat). Si esta vacia solo se comprueba la conexion y el retraso se toma como cero.
+     */
+    private String lagQuery;
+    private Duration lagCheckInterval = Duration.ofSeconds(2);
+    /** Cuanto tiempo siguen las lecturas de un cliente en el primario tras su propia escritura. Al menos max-lag. */
+    private Duration stickyWindow = Duration.ofSeconds(10);
+    /** Cookie que lleva, por cliente, el fin de la ventana fija. */
+    private String stickyCookie = "rw-primary-until";
+}
@@ -22,12 +22,16 @@ public class ProductHateoasConfig implements RepresentationModelAssembler<Produc
 
         productModel.add(linkTo(methodOn(ProductController.class).getProductById(entity.getId())).withSelfRel());
         productModel.add(linkTo(methodOn(ProductController.class).createProduct(null)).withRel("create"));
+        if (entity.getImageDigest() != null) {
+            productModel.add(linkTo(methodOn(ProductController.class).viewImage(entity.getId(), entity.getImageDigest(), null, null)).withRel("image"));
+        }
 
         productModel.add(linkTo(methodOn(ProductController.class). pageableProducts(
                 Integer.parseInt(AppConstants.NUMERO_DE_PAGINA_POR_DEFECTO),
                 Integer.parseInt(AppConstants.MEDIDA_DE_PAGINA_POR_DEFECTO),
                 AppConstants.ORDENAR_POR_DEFECTO,
-                AppConstants.ORDENAR_DIRECCION_POR_DEFECTO
+                AppConstants.ORDENAR_DIRECCION_POR_DEFECTO,
+                null, null, null, null, null
         )).withRel(IanaLinkRelations.COLLECTION));
 
         return productModel;
@@ -1,15 +1,25 @@
 package com.crud.controller;
 
+import com.crud.config.cache.ProductAccessTracker;
 import com.crud.config.hateoas.ProductHateoasConfig;
 import com.crud.dtos.request.ProductRequest;
+import com.crud.dtos.request.ProductUpsertRequest;
+import com.crud.dtos.response.BatchItemResponse;
+import com.crud.dtos.response.CursorPageResponse;
 import com.crud.dtos.response.PageableResponse;
 import com.crud.dtos.response.ProductResponse;
 import com.crud.dtos.response.RestResponse;
+import com.crud.exceptions.BusinessException;
+import com.crud.repositories.ProductFilter;
 import com.crud.services.ProductService;
+import com.crud.storage.DeferredResource;
+import com.crud.storage.ImageStorageProperties;
+import com.crud.storage.ImageVariantCache;
 import com.crud.util.AppConstants;
 import io.swagger.annotations.ApiParam;
 import lombok.RequiredArgsConstructor;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -23,6 +33,7 @@ import javax.validation.constraints.NotBlank;
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
+import java.util.Locale;
 
 @RestController
 @RequiredArgsConstructor
@@ -31,6 +42,9 @@ public class ProductController {
 
     private final ProductService productService;
     private final ProductHateoasConfig productHateoasConfig;
+    private final ProductAccessTracker productAccessTracker;
+    private final ImageStorageProperties imageStorageProperties;
+    private final ImageVariantCache imageVariantCache;
 
 
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
@@ -38,21 +52,65 @@ public class ProductController {
             @RequestParam(value = "pageNo", defaultValue = AppConstants.NUMERO_DE_PAGINA_POR_DEFECTO, required = false) int numeroDePagina,
             @RequestParam(value = "pageSize", defaultValue = AppConstants.MEDIDA_DE_PAGINA_POR_DEFECTO, required = false) int medidaDePagina,
             @RequestParam(value = "sortBy", defaultValue = AppConstants.ORDENAR_POR_DEFECTO, required = false) String ordenarPor,
-            @RequestParam(value = "sortDir", defaultValue = AppConstants.ORDENAR_DIRECCION_POR_DEFECTO, required = false) String sortDir) {
+            @RequestParam(value = "sortDir", defaultValue = AppConstants.ORDENAR_DIRECCION_POR_DEFECTO, required = false) String sortDir,
+            @ApiParam(value = "Categorias admitidas (repetible)")
+            @RequestParam(value = "categoryId", required = false) List<Long> categoryIds,
+            @RequestParam(value = "minPrice", required = false) Double minPrice,
+            @RequestParam(value = "maxPrice", required = false) Double maxPrice,
+            @ApiParam(value = "Prefijo del nombre (distingue mayusculas)")
+            @RequestParam(value = "name", required = false) String name,
+            @ApiParam(value = "Incluir conteos por categoria y por rango de precio")
+            @RequestParam(value = "facets", required = false) Boolean facets) {
 
+        // Sin filtros ni facets se sirve la pagina cacheada de siempre.
+        ProductFilter filter = ProductFilter.of(categoryIds, minPrice, maxPrice, name);
+        boolean withFacets = Boolean.TRUE.equals(facets);
+        PageableResponse<ProductResponse> page = filter.isEmpty() && !withFacets
+                ? productService.pageableProducts(numeroDePagina, medidaDePagina, ordenarPor, sortDir)
+                : productService.filteredProducts(filter, numeroDePagina, medidaDePagina, ordenarPor, sortDir, withFacets);
         return new  RestResponse<>(AppConstants.SUCCESS,
                 String.valueOf(HttpStatus.OK),
                 "PRODUCT SUCCESSFULLY READED",
-                productService.pageableProducts(numeroDePagina, medidaDePagina, ordenarPor, sortDir));
+                page);
+
+    }
+
+    // Modo cursor: se activa con "after" (vacio para la primera pagina) y devuelve "next" en lugar de totales.
+    @GetMapping(params = "after", produces = MediaType.APPLICATION_JSON_VALUE)
+    public RestResponse<CursorPageResponse<ProductResponse>> cursorProducts(
+            @ApiParam(value = "Cursor devuelto como 'next' por la pagina anterior")
+            @RequestParam(value = "after") String after,
+            @RequestParam(value = "pageSize", defaultValue = AppConstants.MEDIDA_DE_PAGINA_POR_DEFECTO, required = false) int medidaDePagina,
+            @RequestParam(value = "sortBy", defaultValue = AppConstants.ORDENAR_POR_DEFECTO, required = false) String ordenarPor,
+            @RequestParam(value = "sortDir", defaultValue = AppConstants.ORDENAR_DIRECCION_POR_DEFECTO, required = false) String sortDir) {
 
+        return new RestResponse<>(AppConstants.SUCCESS,
+                String.valueOf(HttpStatus.OK),
+                "PRODUCT SUCCESSFULLY READED",
+                productService.cursorProducts(after, medidaDePagina, ordenarPor, sortDir));
+    }
+
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_JSON_VALUE)
+    public RestResponse<List<ProductResponse>> searchProducts(
+            @ApiParam(value = "Texto a buscar en nombre y descripcion; el ultimo termino puede ir incompleto")
+            @RequestParam(value = "q") String query,
+            @RequestParam(value = "size", defaultValue = AppConstants.MEDIDA_DE_BUSQUEDA_POR_DEFECTO, required = false) int size) {
+
+        return new RestResponse<>(AppConstants.SUCCESS,
+                String.valueOf(HttpStatus.OK),
+                "PRODUCT SUCCESSFULLY READED",
+                productService.searchProducts(query, size));
     }
 
     @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
     public RestResponse<EntityModel<ProductResponse>> getProductById(@PathVariable Long id) {
+        ProductResponse product = productService.getProductById(id);
+        // Solo ids existentes: los inexistentes no deben calentarse al arrancar.
+        productAccessTracker.record(id);
         return new RestResponse<>(AppConstants.SUCCESS,
                 String.valueOf(HttpStatus.OK),
                 AppConstants.MESSAGE_ID_PRODUCT + id + " SUCCESSFULLY READED",
-                productHateoasConfig.toModel(productService.getProductById(id)));
+                productHateoasConfig.toModel(product));
     }
 
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
@@ -71,6 +129,22 @@ public class ProductController {
                 productHateoasConfig.toModel(productService.updateProduct(id, productRequest)));
     }
 
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public RestResponse<List<BatchItemResponse>> createProducts(@RequestBody List<ProductRequest> productRequests) {
+        return new RestResponse<>(AppConstants.SUCCESS,
+                String.valueOf(HttpStatus.OK),
+                "PRODUCT BATCH PROCESSED",
+                productService.createProducts(productRequests));
+    }
+
+    @PutMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public RestResponse<List<BatchItemResponse>> upsertProducts(@RequestBody List<ProductUpsertRequest> productRequests) {
+        return new RestResponse<>(AppConstants.SUCCESS,
+                String.valueOf(HttpStatus.OK),
+                "PRODUCT BATCH PROCESSED",
+                productService.upsertProducts(productRequests));
+    }
+
     @DeleteMapping("/{id}")
     public RestResponse<String> deleteProduct(@PathVariable Long id) {
         productService.deleteProduct(id);
@@ -80,6 +154,30 @@ public class ProductController {
                 "null"); // Data null.
     }
 
+    @DeleteMapping(params = "ids")
+    public RestResponse<Integer> deleteProducts(@RequestParam List<Long> ids) {
+        return new RestResponse<>(AppConstants.SUCCESS,
+                String.valueOf(HttpStatus.OK),
+                "PRODUCTS SUCCESSFULLY DELETED",
+                productService.deleteProducts(ids));
+    }
+
+    @DeleteMapping(params = "categoryId")
+    public RestResponse<Integer> deleteProductsByCategory(@RequestParam Long categoryId) {
+        return new RestResponse<>(AppConstants.SUCCESS,
+                String.valueOf(HttpStatus.OK),
+                AppConstants.MESSAGE_ID_CATEGORY + categoryId + " PRODUCTS SUCCESSFULLY DELETED",
+                productService.deleteProductsByCategory(categoryId));
+    }
+
+    @PatchMapping(value = "/price", params = "categoryId")
+    public RestResponse<Integer> changePriceByCategory(@RequestParam Long categoryId, @RequestParam double percentage) {
+        return new RestResponse<>(AppConstants.SUCCESS,
+                String.valueOf(HttpStatus.OK),
+                AppConstants.MESSAGE_ID_CATEGORY + categoryId + " PRICES SUCCESSFULLY UPDATED",
+                productService.changePriceByCategory(categoryId, percentage));
+    }
+
     @GetMapping("/export-excel")
     public ResponseEntity<Resource> getExportDataExcel(@RequestParam(value = "pageNo", defaultValue = AppConstants.NUMERO_DE_PAGINA_POR_DEFECTO, required = false) int numeroDePagina,
                                                        @RequestParam(value = "pageSize", defaultValue = AppConstants.MEDIDA_DE_PAGINA_POR_DEFECTO, required = false) int medidaDePagina,
@@ -132,18 +230,54 @@ public class ProductController {
                 productHateoasConfig.toModel(productService.updatedProductImage(id,image, name, price, description, categoryId)));
     }
 
+    // "v" solo sirve para invalidar caches de cliente/CDN: los enlaces llevan el digest de la imagen.
+    // "w" pide una variante redimensionada (cacheada en disco); "format" es jpeg o png.
+    // Validadores y tipo salen del producto cacheado; los bytes solo se leen si hay que enviarlos
+    // (Spring responde 304 a If-None-Match y 206 a Range), y solo si siguen siendo los de ese digest (si no, 409).
     @GetMapping("/upload-img/{id}")
-    public ResponseEntity<Resource> viewImage(@PathVariable Long id){
+    public ResponseEntity<Resource> viewImage(@PathVariable Long id,
+                                              @RequestParam(value = "v", required = false) String version,
+                                              @RequestParam(value = "w", required = false) Integer width,
+                                              @RequestParam(value = "format", required = false) String format){
+        ProductResponse product = productService.getProductById(id);
+        String digest = product.getImageDigest();
+        if (digest == null) {
+            throw new BusinessException("Image no encontrada con el ID: " + id, HttpStatus.NOT_FOUND, "Image not found");
+        }
+        // URL versionada: el contenido no cambia nunca ("immutable" no existe en CacheControl de Spring 5).
+        String cacheControl = digest.equals(version)
+                ? CacheControl.maxAge(imageStorageProperties.getVersionedCacheMaxAge()).cachePublic().getHeaderValue() + ", immutable"
+                : CacheControl.maxAge(imageStorageProperties.getCacheMaxAge()).cachePublic().getHeaderValue();
+        if (width != null) {
+            imageVariantCache.checkWidth(width);
+            String variantFormat = variantFormat(format, product.getImageContentType());
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType("image/" + variantFormat))
+                    .eTag(digest + "-w" + width + "." + variantFormat)
+                    .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                    .body(new DeferredResource("image variant of product " + id, () -> imageVariantCache.get(
+                            digest, width, variantFormat, () -> productService.getProductImage(id, digest))));
+        }
         return ResponseEntity.ok()
-                .contentType(MediaType.IMAGE_JPEG)
-                .body(productService.getProductImage(id));
+                .contentType(product.getImageContentType() != null
+                        ? MediaType.parseMediaType(product.getImageContentType()) : MediaType.IMAGE_JPEG)
+                .eTag(digest)
+                .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                .body(new DeferredResource("image of product " + id, () -> productService.getProductImage(id, digest)));
     }
-}
-
-
-
-
-
-
-
 
+    // Por defecto PNG solo si el original lo es (conserva la transparencia); si no, JPEG.
+    private static String variantFormat(String format, String originalContentType) {
+        if (format == null) {
+            return MediaType.IMAGE_PNG_VALUE.equals(originalContentType) ? "png" : "jpeg";
+        }
+        String normalized = format.toLowerCase(Locale.ROOT);
+        if (normalized.equals("jpg")) {
+            return "jpeg";
+        }
+        if (!normalized.equals("jpeg") && !normalized.equals("png")) {
+            throw new BusinessException("P-400", HttpStatus.BAD_REQUEST, "Formato no soportado: " + format + ", use jpeg o png");
+        }
+        return normalized;
+    }
+}
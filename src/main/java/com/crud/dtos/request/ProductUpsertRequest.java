@@ -0,0 +1,16 @@
+package com.crud.dtos.request;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Elemento de un upsert por lotes: actualiza el producto con {@code id}, o crea uno nuevo si no viene id.
+ */
+@Getter
+@Setter
+public class ProductUpsertRequest extends ProductRequest {
+
+    private Long id;
+
+
+}
@@ -0,0 +1,38 @@
+package com.crud.dtos.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/**
+ * Resultado de un elemento de una peticion por lotes, segun su posicion en el cuerpo.
+ */
+@Getter @Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchItemResponse implements Serializable {
+
+        private int index;
+        private Status status;
+        private Long id;
+        private String message;
+
+        public enum Status { CREATED, UPDATED, FAILED }
+
+        public static BatchItemResponse created(int index, Long id) {
+                return new BatchItemResponse(index, Status.CREATED, id, null);
+        }
+
+        public static BatchItemResponse updated(int index, Long id) {
+                return new BatchItemResponse(index, Status.UPDATED, id, null);
+        }
+
+        public static BatchItemResponse failed(int index, Long id, String message) {
+                return new BatchItemResponse(index, Status.FAILED, id, message);
+        }
+
+
+}
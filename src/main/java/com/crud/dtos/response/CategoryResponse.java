@@ -3,9 +3,11 @@ package com.crud.dtos.response;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.io.Serializable;
+
 @Getter
 @Setter
-public class CategoryResponse {
+public class CategoryResponse implements Serializable {
     private Long id;
     private String name;
 }
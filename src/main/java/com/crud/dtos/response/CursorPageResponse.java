@@ -0,0 +1,25 @@
+package com.crud.dtos.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Pagina por keyset: sin totales, solo el cursor opaco de la pagina siguiente ({@code null} en la ultima).
+ */
+@Getter @Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPageResponse<T> implements Serializable {
+
+        private List<T> content;
+        private int pageSize;
+        private String next;
+        private boolean last;
+
+
+}
@@ -0,0 +1,25 @@
+package com.crud.dtos.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Pagina de un listado filtrado, con los conteos de facetas del filtro si se pidieron.
+ */
+@Getter @Setter
+@NoArgsConstructor
+public class FilteredPageResponse<T> extends PageableResponse<T> {
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private ProductFacetsResponse facets;
+
+        public FilteredPageResponse(List<T> content, int pageNumber, int pageSize, long totalElements, int totalPages,
+                                    boolean last, ProductFacetsResponse facets) {
+                super(content, pageNumber, pageSize, totalElements, totalPages, last);
+                this.facets = facets;
+        }
+}
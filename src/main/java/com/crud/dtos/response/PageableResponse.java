@@ -5,13 +5,14 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.io.Serializable;
 import java.util.List;
 
 
 @Getter @Setter
 @AllArgsConstructor
 @NoArgsConstructor
-public class PageableResponse<T> {
+public class PageableResponse<T> implements Serializable {
 
         private List<T> content;
         private int pageNumber;
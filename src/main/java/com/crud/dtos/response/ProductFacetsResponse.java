@@ -0,0 +1,37 @@
+package com.crud.dtos.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conteos de los productos que cumplen un filtro: en total, por id de categoria y por tramo de precio.
+ */
+@Getter @Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductFacetsResponse implements Serializable {
+
+        private long total;
+        private Map<Long, Long> categories;
+        private List<PriceBucket> prices;
+
+        /**
+         * Productos con precio en {@code [from, to)}; {@code from} es null en el primer tramo
+         * y {@code to} en el ultimo.
+         */
+        @Getter @Setter
+        @AllArgsConstructor
+        @NoArgsConstructor
+        public static class PriceBucket implements Serializable {
+
+                private Double from;
+                private Double to;
+                private long count;
+        }
+}
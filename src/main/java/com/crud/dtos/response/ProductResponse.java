@@ -1,17 +1,44 @@
 package com.crud.dtos.response;
 
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.io.Serializable;
+
 @Getter
 @Setter
-public class ProductResponse {
+@NoArgsConstructor
+public class ProductResponse implements Serializable {
 
     private Long id;
     private String name;
     private Double price;
     private String description;
     private CategoryResponse category;
-    private Integer image;
+    // SHA-256 de la imagen actual: cambia con ella (ETag y version para romper caches).
+    private String imageDigest;
+    private String imageContentType;
+
+    // Proyeccion JPQL (select new ...): se construye sin entidades gestionadas.
+    public ProductResponse(Long id, String name, Double price, String description, Long categoryId, String categoryName,
+                           String imageDigest, String imageContentType) {
+        this.id = id;
+        this.name = name;
+        this.price = price;
+        this.description = description;
+        this.category = new CategoryResponse();
+        this.category.setId(categoryId);
+        this.category.setName(categoryName);
+        this.imageDigest = imageDigest;
+        this.imageContentType = imageContentType;
+    }
+
+    // Campo "image" del API anterior (antes Arrays.hashCode de los bytes), para no romper a los clientes:
+    // nulo sin imagen y distinto cuando cambia. Sale del digest, sin leer la imagen; usar imageDigest.
+    @Deprecated
+    public Integer getImage() {
+        return imageDigest != null ? (int) Long.parseLong(imageDigest.substring(0, 8), 16) : null;
+    }
 
 }
@@ -0,0 +1,29 @@
+package com.crud.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "Categoria_Archivo")
+public class CategoryArchiveEntity {
+
+    // Mismo id que tenia en Categoria.
+    @Id
+    private Long id;
+    private String name;
+
+    private LocalDateTime deletedAt;
+    private LocalDateTime archivedAt;
+
+}
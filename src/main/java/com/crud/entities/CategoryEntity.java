@@ -4,10 +4,13 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.SQLDelete;
 import org.hibernate.annotations.Where;
 
 import javax.persistence.*;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @NoArgsConstructor
@@ -15,20 +18,26 @@ import java.util.List;
 @Getter
 @Setter
 @Entity
-@Table(name = "Categoria")
+@Table(name = "Categoria", indexes = @Index(name = "idx_categoria_deleted_at", columnList = "deleted, deletedAt"))
 @Where(clause = "deleted = false")
-@SQLDelete(sql = "UPDATE Categoria SET deleted = true WHERE id=?")
+@SQLDelete(sql = "UPDATE Categoria SET deleted = true, deleted_at = CURRENT_TIMESTAMP WHERE id=?")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CategoryEntity.CACHE_REGION)
 public class CategoryEntity {
 
+    public static final String CACHE_REGION = "CategoryEntity";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     private String name;
 
-    @OneToMany(mappedBy = "category", cascade = CascadeType.REMOVE)
+    // Sin cascade: los productos se borran con un UPDATE masivo (CategoryServiceImpl.deleteCategory).
+    @OneToMany(mappedBy = "category")
     private List<ProductEntity> products;
 
     @Column(columnDefinition = "BOOLEAN NOT NULL DEFAULT '0'")
     private boolean deleted;
 
+    private LocalDateTime deletedAt;
+
 }
@@ -0,0 +1,39 @@
+package com.crud.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter @Setter
+@Entity
+@Table(name = "Producto_Archivo")
+public class ProductArchiveEntity {
+
+    // Mismo id que tenia en Producto.
+    @Id
+    private Long id;
+    private String name;
+    private Double price;
+    private String description;
+
+    // Sin FK: la categoria puede archivarse (y desaparecer de Categoria) despues.
+    @Column(name = "category_id")
+    private Long categoryId;
+
+    @Column(length = 64)
+    private String imageDigest;
+
+    @Column(length = 50)
+    private String imageContentType;
+
+    private LocalDateTime deletedAt;
+    private LocalDateTime archivedAt;
+
+
+}
@@ -1,7 +1,5 @@
 package com.crud.entities;
 
-import com.fasterxml.jackson.annotation.JsonIgnore;
-import java.util.Arrays;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -10,18 +8,34 @@ import org.hibernate.annotations.SQLDelete;
 import org.hibernate.annotations.Where;
 
 import javax.persistence.*;
+import java.time.LocalDateTime;
 
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter @Setter
 @Entity
-@Table(name = "Producto")
+// Un indice (deleted, campo, id) por cada campo y direccion de ProductSortField (H2 no recorre indices
+// hacia atras), mas el de la categoria para filtrar.
+@Table(name = "Producto", indexes = {
+        @Index(name = "idx_producto_id", columnList = "deleted, id"),
+        @Index(name = "idx_producto_id_desc", columnList = "deleted, id DESC"),
+        @Index(name = "idx_producto_name", columnList = "deleted, name, id"),
+        @Index(name = "idx_producto_name_desc", columnList = "deleted, name DESC, id DESC"),
+        @Index(name = "idx_producto_price", columnList = "deleted, price, id"),
+        @Index(name = "idx_producto_price_desc", columnList = "deleted, price DESC, id DESC"),
+        @Index(name = "idx_producto_description", columnList = "deleted, description, id"),
+        @Index(name = "idx_producto_description_desc", columnList = "deleted, description DESC, id DESC"),
+        @Index(name = "idx_producto_category", columnList = "deleted, category_id, id"),
+        @Index(name = "idx_producto_deleted_at", columnList = "deleted, deletedAt")
+})
 @Where(clause = "deleted = false")
-@SQLDelete(sql = "UPDATE Producto SET deleted = true WHERE id=?")
+@SQLDelete(sql = "UPDATE Producto SET deleted = true, deleted_at = CURRENT_TIMESTAMP WHERE id=?")
 public class ProductEntity {
 
+    // Ids reservados de 50 en 50 (pooled): los INSERT no necesitan ir uno a uno y se agrupan en batches JDBC.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "producto_seq")
+    @SequenceGenerator(name = "producto_seq", sequenceName = "producto_seq", allocationSize = 50)
     private Long id;
     private String name;
     private Double price;
@@ -34,17 +48,16 @@ public class ProductEntity {
     @Column(columnDefinition = "BOOLEAN NOT NULL DEFAULT '0'")
     private boolean deleted;
 
+    // Cuando se borro logicamente; SoftDeleteArchiver lo usa para archivar la fila pasado el periodo de retencion.
+    private LocalDateTime deletedAt;
 
-    @Lob
-    @JsonIgnore
-    private byte[] image;
-    @Transient
-    private Integer imageHashCode;
-
-    public Integer getImageHashCode(){
-        return (this.image != null) ? Arrays.hashCode(this.image) : null;
-    }
+    // SHA-256 (hex) calculado al subir la imagen; los bytes viven en ProductImageEntity.
+    @Column(length = 64)
+    private String imageDigest;
 
+    // Detectado por los magic numbers al subir la imagen.
+    @Column(length = 50)
+    private String imageContentType;
 
 
 }
@@ -0,0 +1,41 @@
+package com.crud.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.*;
+import java.sql.Blob;
+
+/**
+ * Bytes de la imagen de un producto, fuera de la fila de {@code Producto} para que los listados
+ * y las lecturas de detalle nunca carguen BLOBs. Comparte la clave primaria con su producto.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter @Setter
+@Entity
+@Table(name = "Producto_Imagen")
+public class ProductImageEntity implements Persistable<Long> {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    // Blob: se escribe y se lee en streaming, sin materializar la imagen en memoria.
+    @Lob
+    private Blob data;
+
+    @Override
+    public Long getId() {
+        return productId;
+    }
+
+    // Siempre es un INSERT: al reemplazar, la fila anterior se borra antes (sin cargar el BLOB).
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
@@ -0,0 +1,35 @@
+package com.crud.events;
+
+import com.crud.dtos.response.CategoryResponse;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.Serializable;
+
+/**
+ * Lo publica el servicio de categorias por cada escritura confirmada. {@code before} es null
+ * en las altas y {@code after} es null en las bajas.
+ */
+@Getter
+@AllArgsConstructor
+public class CategoryChangedEvent implements Serializable {
+
+    private final CategoryResponse before;
+    private final CategoryResponse after;
+
+    public static CategoryChangedEvent created(CategoryResponse category) {
+        return new CategoryChangedEvent(null, category);
+    }
+
+    public static CategoryChangedEvent updated(CategoryResponse before, CategoryResponse after) {
+        return new CategoryChangedEvent(before, after);
+    }
+
+    public static CategoryChangedEvent deleted(CategoryResponse category) {
+        return new CategoryChangedEvent(category, null);
+    }
+
+    public Long getCategoryId() {
+        return before != null ? before.getId() : after.getId();
+    }
+}
@@ -0,0 +1,20 @@
+package com.crud.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Lo publica el servicio de productos por cada sentencia masiva confirmada, con un cambio por
+ * fila afectada. {@code complete} es false si la sentencia actualizo filas que no se leyeron
+ * antes (se colo una escritura concurrente), asi que no se puede confiar en los cambios fila a fila.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductBulkChangedEvent implements Serializable {
+
+    private final List<ProductChangedEvent> changes;
+    private final boolean complete;
+}
@@ -0,0 +1,31 @@
+package com.crud.events;
+
+import com.crud.dtos.response.ProductResponse;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.Serializable;
+
+/**
+ * Lo publica el servicio de productos por cada escritura confirmada. {@code before} es null
+ * en las altas y {@code after} es null en las bajas.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductChangedEvent implements Serializable {
+
+    private final ProductResponse before;
+    private final ProductResponse after;
+
+    public static ProductChangedEvent created(ProductResponse product) {
+        return new ProductChangedEvent(null, product);
+    }
+
+    public static ProductChangedEvent updated(ProductResponse before, ProductResponse after) {
+        return new ProductChangedEvent(before, after);
+    }
+
+    public static ProductChangedEvent deleted(ProductResponse product) {
+        return new ProductChangedEvent(product, null);
+    }
+}
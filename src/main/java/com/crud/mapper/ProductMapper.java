@@ -13,11 +13,11 @@ import java.util.List;
 public interface ProductMapper {
 
     @Mapping(source = "category.id", target = "category.id")
-    @Mapping(source = "imageHashCode", target = "image")
     ProductResponse toDto(ProductEntity productEntity);
 
     @Mapping(source = "categoryId", target = "category.id")
-    @Mapping(target = "image", ignore = true)
+    @Mapping(target = "imageDigest", ignore = true)
+    @Mapping(target = "imageContentType", ignore = true)
     ProductEntity toEntity(ProductRequest productRequest);
 
 
@@ -0,0 +1,11 @@
+package com.crud.repositories;
+
+/**
+ * Producto borrado logicamente pendiente de archivar, con la imagen que se va con el.
+ */
+public interface ArchivableProduct {
+
+    Long getId();
+
+    String getImageDigest();
+}
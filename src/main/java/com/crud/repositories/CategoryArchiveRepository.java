@@ -0,0 +1,18 @@
+package com.crud.repositories;
+
+import com.crud.entities.CategoryArchiveEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+
+public interface CategoryArchiveRepository extends JpaRepository<CategoryArchiveEntity, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO Categoria_Archivo (id, name, deleted_at, archived_at) "
+            + "SELECT id, name, deleted_at, CURRENT_TIMESTAMP FROM Categoria WHERE id IN (:ids) AND deleted = true",
+            nativeQuery = true)
+    int archiveByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,11 @@
+package com.crud.repositories;
+
+/**
+ * Productos activos de una categoria.
+ */
+public interface CategoryCount {
+
+    Long getCategoryId();
+
+    long getTotal();
+}
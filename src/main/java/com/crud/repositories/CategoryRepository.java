@@ -2,6 +2,35 @@ package com.crud.repositories;
 
 import com.crud.entities.CategoryEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 public interface CategoryRepository extends JpaRepository<CategoryEntity, Long> {
+
+    // findById ya sale de la cache de segundo nivel; el listado completo va a la cache de consultas.
+    @Override
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.CACHEABLE, value = "true"))
+    List<CategoryEntity> findAll();
+
+    // JPQL y no nativa: Hibernate solo invalida la region de CategoryEntity y las consultas sobre Categoria.
+    @Modifying
+    @Query("update CategoryEntity c set c.deleted = true, c.deletedAt = current_timestamp where c.id = :id and c.deleted = false")
+    int softDeleteById(@Param("id") Long id);
+
+    // Archivado: solo categorias sin productos (ni siquiera borrados) que aun las referencien. FOR UPDATE reclama el lote.
+    @Query(value = "SELECT c.id FROM Categoria c WHERE c.deleted = true AND (c.deleted_at IS NULL OR c.deleted_at < :cutoff) "
+            + "AND NOT EXISTS (SELECT 1 FROM Producto p WHERE p.category_id = c.id) ORDER BY c.id LIMIT :limit FOR UPDATE",
+            nativeQuery = true)
+    List<Long> findArchivableIds(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "DELETE FROM Categoria WHERE id IN (:ids) AND deleted = true", nativeQuery = true)
+    int purgeByIdIn(@Param("ids") Collection<Long> ids);
 }
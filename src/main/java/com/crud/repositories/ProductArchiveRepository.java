@@ -0,0 +1,20 @@
+package com.crud.repositories;
+
+import com.crud.entities.ProductArchiveEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+
+public interface ProductArchiveRepository extends JpaRepository<ProductArchiveEntity, Long> {
+
+    // Copia en el servidor (INSERT ... SELECT): las filas no pasan por la aplicacion.
+    @Modifying
+    @Query(value = "INSERT INTO Producto_Archivo (id, name, price, description, category_id, image_digest, "
+            + "image_content_type, deleted_at, archived_at) "
+            + "SELECT id, name, price, description, category_id, image_digest, image_content_type, deleted_at, CURRENT_TIMESTAMP "
+            + "FROM Producto WHERE id IN (:ids) AND deleted = true", nativeQuery = true)
+    int archiveByIdIn(@Param("ids") Collection<Long> ids);
+}
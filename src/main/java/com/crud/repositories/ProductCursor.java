@@ -0,0 +1,67 @@
+package com.crud.repositories;
+
+import com.crud.entities.ProductEntity;
+import com.crud.exceptions.BusinessException;
+import com.crud.util.AppConstants;
+import lombok.Getter;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Posicion por keyset en el listado de productos: el valor de orden y el id de la ultima fila
+ * devuelta. Se serializa como un token opaco apto para URL que tambien guarda el orden al que
+ * pertenece, asi que un cursor no se puede usar con otro orden.
+ */
+@Getter
+public final class ProductCursor {
+
+    private final String sortBy;
+    private final Sort.Direction direction;
+    private final Object value;
+    private final Long id;
+
+    private ProductCursor(String sortBy, Sort.Direction direction, Object value, Long id) {
+        this.sortBy = sortBy;
+        this.direction = direction;
+        this.value = value;
+        this.id = id;
+    }
+
+    public static ProductCursor after(ProductEntity product, String sortBy, Sort.Direction direction) {
+        return new ProductCursor(sortBy, direction, ProductSortField.of(sortBy).valueOf(product), product.getId());
+    }
+
+    public String encode() {
+        String kind = value == null ? "n" : value instanceof Double ? "d" : value instanceof Long ? "l" : "s";
+        String raw = sortBy + "," + direction.name() + "," + id + "," + kind + (value == null ? "" : value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ProductCursor decode(String token, String sortBy, Sort.Direction direction) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(",", 4);
+            if (parts.length != 4 || !parts[0].equals(sortBy) || !parts[1].equals(direction.name()) || parts[3].isEmpty()) {
+                throw invalid();
+            }
+            String value = parts[3].substring(1);
+            Object parsed = switch (parts[3].charAt(0)) {
+                case 'n' -> null;
+                case 'd' -> Double.valueOf(value);
+                case 'l' -> Long.valueOf(value);
+                case 's' -> value;
+                default -> throw invalid();
+            };
+            return new ProductCursor(sortBy, direction, parsed, Long.valueOf(parts[2]));
+        } catch (IllegalArgumentException ex) {
+            throw invalid();
+        }
+    }
+
+    private static BusinessException invalid() {
+        return new BusinessException(AppConstants.BAD_REQUEST, HttpStatus.BAD_REQUEST,
+                "Cursor no valido para este orden; vuelva a pedir la primera pagina");
+    }
+}
@@ -0,0 +1,57 @@
+package com.crud.repositories;
+
+import com.crud.exceptions.BusinessException;
+import com.crud.util.AppConstants;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.StringUtils;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Filtros del listado de productos: cualquiera de un conjunto de categorias, un rango de precio
+ * inclusivo y un prefijo del nombre (distingue mayusculas, para poder usar el indice). Se
+ * normaliza al crearse, asi que filtros iguales comparten clave de cache sea cual sea el orden
+ * o la repeticion de los ids de categoria.
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+public final class ProductFilter implements Serializable {
+
+    private final List<Long> categoryIds;
+    private final Double minPrice;
+    private final Double maxPrice;
+    private final String namePrefix;
+
+    private ProductFilter(List<Long> categoryIds, Double minPrice, Double maxPrice, String namePrefix) {
+        this.categoryIds = categoryIds;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.namePrefix = namePrefix;
+    }
+
+    public static ProductFilter of(Collection<Long> categoryIds, Double minPrice, Double maxPrice, String namePrefix) {
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new BusinessException(AppConstants.BAD_REQUEST, HttpStatus.BAD_REQUEST,
+                    "minPrice (" + minPrice + ") mayor que maxPrice (" + maxPrice + ")");
+        }
+        List<Long> categories = categoryIds == null ? List.of()
+                : categoryIds.stream().filter(Objects::nonNull).distinct().sorted().toList();
+        if (categories.size() > AppConstants.MAX_FILTER_CATEGORIES) {
+            throw new BusinessException(AppConstants.BAD_REQUEST, HttpStatus.BAD_REQUEST,
+                    "Como maximo " + AppConstants.MAX_FILTER_CATEGORIES + " categorias por filtro");
+        }
+        String prefix = StringUtils.hasText(namePrefix) ? namePrefix.trim() : null;
+        return new ProductFilter(categories, minPrice, maxPrice, prefix);
+    }
+
+    public boolean isEmpty() {
+        return categoryIds.isEmpty() && minPrice == null && maxPrice == null && namePrefix == null;
+    }
+}
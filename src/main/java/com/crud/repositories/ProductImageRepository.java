@@ -0,0 +1,19 @@
+package com.crud.repositories;
+
+import com.crud.entities.ProductImageEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface ProductImageRepository extends JpaRepository<ProductImageEntity, Long> {
+
+    @Query("select i.productId from ProductImageEntity i order by i.productId")
+    List<Long> findAllProductIds();
+
+    @Modifying
+    @Query("delete from ProductImageEntity i where i.productId = :productId")
+    int deleteByProductId(@Param("productId") Long productId);
+}
@@ -1,7 +1,86 @@
 package com.crud.repositories;
 
+import com.crud.dtos.response.ProductResponse;
 import com.crud.entities.ProductEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface ProductRepository extends JpaRepository<ProductEntity, Long> {
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ProductRepository extends JpaRepository<ProductEntity, Long>, ProductRepositoryCustom {
+
+    // Nativa: tambien cuenta las filas borradas logicamente, que conservan la imagen hasta archivarse.
+    @Query(value = "SELECT COUNT(*) FROM Producto WHERE image_digest = :digest", nativeQuery = true)
+    long countByImageDigest(@Param("digest") String imageDigest);
+
+    // Lecturas: una sola consulta con la categoria unida, directamente a DTO.
+    String PRODUCT_RESPONSE = "select new com.crud.dtos.response.ProductResponse(p.id, p.name, p.price, p.description, "
+            + "c.id, c.name, p.imageDigest, p.imageContentType) from ProductEntity p join p.category c";
+
+    // Slice: pide una fila de mas en lugar de lanzar COUNT(*).
+    @Query(PRODUCT_RESPONSE)
+    Slice<ProductResponse> findResponsesBy(Pageable pageable);
+
+    @Query(PRODUCT_RESPONSE + " where p.id = :id")
+    Optional<ProductResponse> findResponseById(@Param("id") Long id);
+
+    @Query(PRODUCT_RESPONSE)
+    List<ProductResponse> findAllResponses();
+
+    @Query(PRODUCT_RESPONSE + " where p.id in :ids")
+    List<ProductResponse> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(PRODUCT_RESPONSE + " where c.id = :categoryId")
+    List<ProductResponse> findResponsesByCategoryId(@Param("categoryId") Long categoryId);
+
+    // Escrituras: la entidad con su categoria en la misma consulta.
+    @Override
+    @EntityGraph(attributePaths = "category")
+    Optional<ProductEntity> findById(Long id);
+
+    @Override
+    @EntityGraph(attributePaths = "category")
+    List<ProductEntity> findAllById(Iterable<Long> ids);
+
+    @Query("select p.category.id as categoryId, count(p) as total from ProductEntity p group by p.category.id")
+    List<CategoryCount> countByCategory();
+
+    // Operaciones masivas: un solo UPDATE por conjunto (@Where no se aplica a los UPDATE en JPQL).
+    @Modifying
+    @Query("update ProductEntity p set p.deleted = true, p.deletedAt = current_timestamp where p.id in :ids and p.deleted = false")
+    int softDeleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("update ProductEntity p set p.deleted = true, p.deletedAt = current_timestamp where p.category.id = :categoryId and p.deleted = false")
+    int softDeleteByCategoryId(@Param("categoryId") Long categoryId);
+
+    // Redondeo a centimos en la base de datos; ProductServiceImpl.scalePrice hace el mismo calculo para los eventos.
+    @Modifying
+    @Query("update ProductEntity p set p.price = round(p.price * :factor, 2) where p.category.id = :categoryId and p.deleted = false")
+    int scalePriceByCategoryId(@Param("categoryId") Long categoryId, @Param("factor") double factor);
+
+    // Archivado: nativas porque @Where oculta a JPQL las filas borradas.
+    // FOR UPDATE reclama el lote: otro nodo que archive a la vez no coge las mismas filas (ni choca en Producto_Archivo).
+    @Query(value = "SELECT id, image_digest AS imageDigest FROM Producto "
+            + "WHERE deleted = true AND (deleted_at IS NULL OR deleted_at < :cutoff) ORDER BY id LIMIT :limit FOR UPDATE",
+            nativeQuery = true)
+    List<ArchivableProduct> findArchivable(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "DELETE FROM Producto WHERE id IN (:ids) AND deleted = true", nativeQuery = true)
+    int purgeByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Nativa: tambien alcanza a productos borrados logicamente.
+    @Modifying
+    @Query(value = "UPDATE Producto SET image_digest = :digest, image_content_type = :contentType WHERE id = :id",
+            nativeQuery = true)
+    int updateImage(@Param("id") Long id, @Param("digest") String digest, @Param("contentType") String contentType);
 }
@@ -0,0 +1,33 @@
+package com.crud.repositories;
+
+import com.crud.dtos.response.ProductFacetsResponse;
+import com.crud.dtos.response.ProductResponse;
+import com.crud.entities.ProductEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface ProductRepositoryCustom {
+
+    /**
+     * Hasta {@code limit} productos estrictamente despues de {@code cursor} (desde el principio
+     * si es null), ordenados por {@code sortBy} y despues id, con los nulos al final. Busca en el
+     * indice en lugar de saltar filas y nunca lanza una consulta de conteo.
+     */
+    List<ProductEntity> findPageAfter(String sortBy, Sort.Direction direction, ProductCursor cursor, int limit);
+
+    /**
+     * Pagina de los productos que cumplen {@code spec}, leida directamente a DTOs con su
+     * categoria. Como {@link ProductRepository#findResponsesBy}, un slice: sin consulta de conteo.
+     */
+    Slice<ProductResponse> findResponses(Specification<ProductEntity> spec, Pageable pageable);
+
+    /**
+     * Conteos de facetas de los productos que cumplen {@code spec} en una sola consulta agregada,
+     * agrupada por categoria con una suma condicional por tramo de precio delimitado por {@code priceBounds}.
+     */
+    ProductFacetsResponse countFacets(Specification<ProductEntity> spec, List<Double> priceBounds);
+}
@@ -0,0 +1,157 @@
+package com.crud.repositories;
+
+import com.crud.dtos.response.ProductFacetsResponse;
+import com.crud.dtos.response.ProductResponse;
+import com.crud.entities.CategoryEntity;
+import com.crud.entities.ProductEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Filas despues del cursor, con los valores de orden {@code null} al final en los dos
+     * sentidos. Los valores y la cola de nulos se leen con busquedas separadas, cada una un rango
+     * del indice {@code (deleted, field, id)} en el orden del indice: un solo predicado que mezcle
+     * los dos ({@code ... or field is null}) no seria un rango y obliga a recorrer la tabla.
+     */
+    @Override
+    public List<ProductEntity> findPageAfter(String sortBy, Sort.Direction direction, ProductCursor cursor, int limit) {
+        ProductSortField sortField = ProductSortField.of(sortBy);
+        String field = "p." + sortField.getProperty();
+        String cmp = direction.isAscending() ? ">" : "<";
+        if (sortField == ProductSortField.ID) {
+            return cursor == null ? seek(null, Map.of(), sortField, direction, limit)
+                    : seek("p.id " + cmp + " :id", Map.of("id", cursor.getId()), sortField, direction, limit);
+        }
+
+        List<ProductEntity> rows = new ArrayList<>();
+        if (cursor == null) {
+            rows.addAll(seek(field + " is not null", Map.of(), sortField, direction, limit));
+        } else if (cursor.getValue() != null) {
+            // "f >= v and (f > v or id > i)": el primer termino acota el rango del indice.
+            rows.addAll(seek(field + ' ' + cmp + "= :value and (" + field + ' ' + cmp + " :value or p.id " + cmp + " :id)",
+                    Map.of("value", cursor.getValue(), "id", cursor.getId()), sortField, direction, limit));
+        }
+        if (rows.size() < limit) {
+            rows.addAll(cursor == null || cursor.getValue() != null
+                    ? seek(field + " is null", Map.of(), sortField, direction, limit - rows.size())
+                    : seek(field + " is null and p.id " + cmp + " :id", Map.of("id", cursor.getId()), sortField, direction,
+                    limit - rows.size()));
+        }
+        return rows;
+    }
+
+    private List<ProductEntity> seek(String where, Map<String, Object> parameters, ProductSortField sortField,
+                                     Sort.Direction direction, int limit) {
+        StringBuilder jpql = new StringBuilder("select p from ProductEntity p join fetch p.category");
+        if (where != null) {
+            jpql.append(" where ").append(where);
+        }
+        // Mismo orden que el indice: deleted (constante) primero, despues el campo y el id.
+        jpql.append(" order by ").append(sortField.sort(direction).stream()
+                .map(order -> "p." + order.getProperty() + (order.isAscending() ? " asc" : " desc"))
+                .collect(Collectors.joining(", ")));
+
+        TypedQuery<ProductEntity> query = entityManager.createQuery(jpql.toString(), ProductEntity.class);
+        parameters.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public Slice<ProductResponse> findResponses(Specification<ProductEntity> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductResponse> query = cb.createQuery(ProductResponse.class);
+        Root<ProductEntity> product = query.from(ProductEntity.class);
+        Join<ProductEntity, CategoryEntity> category = product.join("category");
+        query.select(cb.construct(ProductResponse.class, product.get("id"), product.get("name"), product.get("price"),
+                product.get("description"), category.get("id"), category.get("name"), product.get("imageDigest"),
+                product.get("imageContentType")));
+        Predicate where = spec.toPredicate(product, query, cb);
+        if (where != null) {
+            query.where(where);
+        }
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), product, cb));
+
+        // Una fila de mas indica si hay pagina siguiente.
+        List<ProductResponse> rows = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+
+    @Override
+    public ProductFacetsResponse countFacets(Specification<ProductEntity> spec, List<Double> priceBounds) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<ProductEntity> product = query.from(ProductEntity.class);
+        Path<Long> categoryId = product.get("category").get("id");
+        Path<Double> price = product.get("price");
+
+        List<Selection<?>> selections = new ArrayList<>(List.of(categoryId, cb.count(product)));
+        for (int bucket = 0; bucket <= priceBounds.size(); bucket++) {
+            List<Predicate> range = new ArrayList<>();
+            if (bucket > 0) {
+                range.add(cb.greaterThanOrEqualTo(price, priceBounds.get(bucket - 1)));
+            }
+            if (bucket < priceBounds.size()) {
+                range.add(cb.lessThan(price, priceBounds.get(bucket)));
+            }
+            Predicate inBucket = range.isEmpty() ? cb.isNotNull(price) : cb.and(range.toArray(Predicate[]::new));
+            Expression<Integer> hit = cb.<Integer>selectCase().when(inBucket, 1).otherwise(0);
+            selections.add(cb.sum(hit));
+        }
+        query.multiselect(selections).groupBy(categoryId).orderBy(cb.asc(categoryId));
+        Predicate where = spec.toPredicate(product, query, cb);
+        if (where != null) {
+            query.where(where);
+        }
+
+        long total = 0;
+        Map<Long, Long> categories = new LinkedHashMap<>();
+        long[] buckets = new long[priceBounds.size() + 1];
+        for (Tuple row : entityManager.createQuery(query).getResultList()) {
+            long count = row.get(1, Long.class);
+            categories.put(row.get(0, Long.class), count);
+            total += count;
+            for (int bucket = 0; bucket < buckets.length; bucket++) {
+                Number hits = (Number) row.get(bucket + 2);
+                buckets[bucket] += hits != null ? hits.longValue() : 0;
+            }
+        }
+
+        List<ProductFacetsResponse.PriceBucket> prices = new ArrayList<>();
+        for (int bucket = 0; bucket < buckets.length; bucket++) {
+            prices.add(new ProductFacetsResponse.PriceBucket(bucket == 0 ? null : priceBounds.get(bucket - 1),
+                    bucket == priceBounds.size() ? null : priceBounds.get(bucket), buckets[bucket]));
+        }
+        return new ProductFacetsResponse(total, categories, prices);
+    }
+}
@@ -0,0 +1,79 @@
+package com.crud.repositories;
+
+import com.crud.dtos.response.ProductResponse;
+import com.crud.entities.ProductEntity;
+import com.crud.exceptions.BusinessException;
+import com.crud.util.AppConstants;
+import lombok.Getter;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Campos por los que se puede ordenar el listado de productos. Cada uno tiene indices compuestos
+ * {@code (deleted, field, id)} en {@code Producto} (declarados en {@link ProductEntity}), uno
+ * ascendente y otro descendente: el filtro {@code @Where}, la clave de orden y el desempate, asi
+ * que una pagina se lee en el orden del indice en lugar de ordenarse. Cualquier otro campo se
+ * rechaza antes de construir la consulta.
+ */
+public enum ProductSortField {
+
+    ID("id", "idx_producto_id"),
+    NAME("name", "idx_producto_name"),
+    PRICE("price", "idx_producto_price"),
+    DESCRIPTION("description", "idx_producto_description");
+
+    @Getter
+    private final String property;
+    private final String index;
+
+    ProductSortField(String property, String index) {
+        this.property = property;
+        this.index = index;
+    }
+
+    public static ProductSortField of(String property) {
+        return find(property).orElseThrow(() -> new BusinessException(AppConstants.BAD_REQUEST, HttpStatus.BAD_REQUEST,
+                "Campo de orden no valido: " + property + ". Valores permitidos: "
+                        + Arrays.stream(values()).map(ProductSortField::getProperty).collect(Collectors.joining(", "))));
+    }
+
+    public static Optional<ProductSortField> find(String property) {
+        return Arrays.stream(values()).filter(field -> field.property.equals(property)).findFirst();
+    }
+
+    /** Nombre del indice que sirve este campo en el sentido indicado. */
+    public String index(Sort.Direction direction) {
+        return direction.isAscending() ? index : index + "_desc";
+    }
+
+    /**
+     * Orden que coincide con el indice: primero la constante {@code deleted} (permite a la base
+     * de datos recorrer el indice en lugar de ordenar), despues el campo y {@code id} para desempatar.
+     */
+    public Sort sort(Sort.Direction direction) {
+        Sort sort = Sort.by(Sort.Direction.ASC, "deleted").and(Sort.by(direction, property));
+        return this == ID ? sort : sort.and(Sort.by(direction, ID.property));
+    }
+
+    public Object valueOf(ProductEntity product) {
+        return switch (this) {
+            case ID -> product.getId();
+            case NAME -> product.getName();
+            case PRICE -> product.getPrice();
+            case DESCRIPTION -> product.getDescription();
+        };
+    }
+
+    public Object valueOf(ProductResponse product) {
+        return switch (this) {
+            case ID -> product.getId();
+            case NAME -> product.getName();
+            case PRICE -> product.getPrice();
+            case DESCRIPTION -> product.getDescription();
+        };
+    }
+}
@@ -0,0 +1,41 @@
+package com.crud.repositories;
+
+import com.crud.entities.ProductEntity;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Predicados de {@link ProductFilter}. Cada uno compara una columna cubierta por un indice de
+ * {@code Producto} (category_id, price, name), asi que las consultas filtradas buscan en el
+ * indice en lugar de recorrer la tabla.
+ */
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<ProductEntity> matching(ProductFilter filter) {
+        Specification<ProductEntity> spec = Specification.where(null);
+        if (!filter.getCategoryIds().isEmpty()) {
+            spec = spec.and(inCategories(filter));
+        }
+        if (filter.getMinPrice() != null) {
+            spec = spec.and((product, query, cb) -> cb.greaterThanOrEqualTo(product.get("price"), filter.getMinPrice()));
+        }
+        if (filter.getMaxPrice() != null) {
+            spec = spec.and((product, query, cb) -> cb.lessThanOrEqualTo(product.get("price"), filter.getMaxPrice()));
+        }
+        if (filter.getNamePrefix() != null) {
+            spec = spec.and((product, query, cb) -> cb.like(product.get("name"), escape(filter.getNamePrefix()) + "%", '\\'));
+        }
+        return spec;
+    }
+
+    // Sobre la FK: sin join a Categoria.
+    private static Specification<ProductEntity> inCategories(ProductFilter filter) {
+        return (product, query, cb) -> product.get("category").get("id").in(filter.getCategoryIds());
+    }
+
+    private static String escape(String prefix) {
+        return prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,19 @@
+package com.crud.services;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Limites de los endpoints de alta/upsert por lotes, leidos de {@code app.products.batch.*}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.products.batch")
+public class ProductBatchProperties {
+
+    /** Maximo de elementos aceptados en una peticion. */
+    private int maxItems = 10_000;
+    /** Elementos escritos por transaccion; un flush que falla solo deshace su propio bloque. */
+    private int chunkSize = 500;
+}
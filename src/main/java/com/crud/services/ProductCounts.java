@@ -0,0 +1,126 @@
+package com.crud.services;
+
+import com.crud.dtos.response.ProductResponse;
+import com.crud.events.CategoryChangedEvent;
+import com.crud.events.ProductBulkChangedEvent;
+import com.crud.events.ProductChangedEvent;
+import com.crud.repositories.CategoryCount;
+import com.crud.repositories.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Numero de productos activos, en total y por categoria, en memoria para que los listados no
+ * ejecuten {@code COUNT(*)}. Se actualiza con los eventos confirmados de productos y categorias
+ * (tambien los que llegan de otros nodos) y se reconcilia con la base de datos con un
+ * {@code GROUP BY} al arrancar y cada {@code app.products.counts.reconcile-interval}.
+ */
+@Slf4j
+@Component
+public class ProductCounts implements InitializingBean {
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Long, AtomicLong> byCategory = new ConcurrentHashMap<>();
+    private final AtomicLong total = new AtomicLong();
+    private final Counter drift;
+
+    public ProductCounts(ProductRepository productRepository, TransactionTemplate transactionTemplate, MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.drift = meterRegistry.counter("products.count.drift");
+        meterRegistry.gauge("products.count", total);
+    }
+
+    public long total() {
+        return total.get();
+    }
+
+    public long count(Long categoryId) {
+        AtomicLong count = byCategory.get(categoryId);
+        return count != null ? count.get() : 0;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        reconcile();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Long before = categoryId(event.getBefore());
+        Long after = categoryId(event.getAfter());
+        if (event.getBefore() == null) {
+            add(after, 1);
+        } else if (event.getAfter() == null) {
+            add(before, -1);
+        } else if (before != null && !before.equals(after)) {
+            add(before, -1);
+            add(after, 1);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsChanged(ProductBulkChangedEvent event) {
+        if (event.isComplete()) {
+            event.getChanges().forEach(this::onProductChanged);
+        } else {
+            reconcile();
+        }
+    }
+
+    // Al borrar una categoria se van con ella todos sus productos.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (event.getAfter() == null) {
+            AtomicLong removed = byCategory.remove(event.getCategoryId());
+            if (removed != null) {
+                total.addAndGet(-removed.get());
+            }
+        }
+    }
+
+    /**
+     * Sustituye los contadores por lo que hay en la base de datos. Los eventos confirmados
+     * mientras corre la consulta pueden contarse dos veces o perderse; la siguiente pasada los corrige.
+     */
+    @Scheduled(initialDelayString = "${app.products.counts.reconcile-interval:PT5M}",
+            fixedDelayString = "${app.products.counts.reconcile-interval:PT5M}")
+    public synchronized void reconcile() {
+        Map<Long, AtomicLong> counted = new ConcurrentHashMap<>();
+        long sum = 0;
+        // Transaccion de escritura: la foto se combina con los eventos, no puede venir de una replica retrasada.
+        for (CategoryCount count : transactionTemplate.execute(status -> productRepository.countByCategory())) {
+            counted.put(count.getCategoryId(), new AtomicLong(count.getTotal()));
+            sum += count.getTotal();
+        }
+        long previous = total.getAndSet(sum);
+        byCategory.keySet().retainAll(counted.keySet());
+        byCategory.putAll(counted);
+        if (previous != sum) {
+            drift.increment(Math.abs(previous - sum));
+            log.debug("Product counts reconciled: {} -> {}", previous, sum);
+        }
+    }
+
+    private void add(Long categoryId, long delta) {
+        total.addAndGet(delta);
+        if (categoryId != null) {
+            byCategory.computeIfAbsent(categoryId, id -> new AtomicLong()).addAndGet(delta);
+        }
+    }
+
+    private static Long categoryId(ProductResponse product) {
+        return product != null && product.getCategory() != null ? product.getCategory().getId() : null;
+    }
+}
@@ -0,0 +1,38 @@
+package com.crud.services;
+
+import com.crud.dtos.response.ProductFacetsResponse;
+import com.crud.repositories.ProductFilter;
+import com.crud.repositories.ProductRepository;
+import com.crud.repositories.ProductSpecifications;
+import com.crud.util.AppConstants;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Conteos de facetas de un filtro de productos, cacheados en {@code ProductoFacetas} por el
+ * filtro normalizado. Cualquier escritura de producto puede meter o sacar un producto de
+ * cualquier filtro, asi que {@code ProductCacheInvalidator} vacia toda la cache en lugar de
+ * seguir las firmas.
+ */
+@Component
+public class ProductFacets {
+
+    private final ProductRepository productRepository;
+    private final List<Double> priceBounds;
+
+    public ProductFacets(ProductRepository productRepository,
+                         @Value("${app.products.facets.price-bounds:10,50,100,500}") List<Double> priceBounds) {
+        this.productRepository = productRepository;
+        this.priceBounds = priceBounds.stream().distinct().sorted().toList();
+    }
+
+    @Cacheable(value = AppConstants.CACHE_PRODUCTO_FACETAS, sync = true)
+    @Transactional(readOnly = true)
+    public ProductFacetsResponse facets(ProductFilter filter) {
+        return productRepository.countFacets(ProductSpecifications.matching(filter), priceBounds);
+    }
+}
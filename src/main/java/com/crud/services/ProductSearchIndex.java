@@ -0,0 +1,310 @@
+package com.crud.services;
+
+import com.crud.dtos.response.CategoryResponse;
+import com.crud.dtos.response.ProductResponse;
+import com.crud.events.CategoryChangedEvent;
+import com.crud.events.ProductBulkChangedEvent;
+import com.crud.events.ProductChangedEvent;
+import com.crud.repositories.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Indice invertido en memoria sobre los nombres y descripciones de los productos, que responde
+ * las busquedas sin tocar la base de datos. Se construye con una consulta de proyeccion al
+ * arrancar y se mantiene al dia con los eventos confirmados de productos y categorias (tambien
+ * los que llegan de otros nodos).
+ * <p>
+ * El texto se pasa a minusculas, se le quitan los acentos y se parte por todo lo que no sea
+ * letra o digito. Cada termino de la consulta tiene que casar con un termino del producto,
+ * exacto o como prefijo; la puntuacion suma, por termino de la consulta, el mejor peso de campo
+ * (nombre sobre descripcion) por su IDF, a la mitad si casa como prefijo.
+ */
+@Slf4j
+@Component
+public class ProductSearchIndex implements InitializingBean {
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final double PREFIX_FACTOR = 0.5;
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Timer searches;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    /** Termino -> id de producto -> peso del campo; ordenado para que los prefijos sean un submapa. */
+    private NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private Map<Long, Document> documents = new HashMap<>();
+    /** Cambios aplicados mientras {@link #rebuild()} lee la base de datos, para repetirlos sobre su foto; null si no. */
+    private List<Runnable> changesDuringRebuild;
+
+    public ProductSearchIndex(ProductRepository productRepository, TransactionTemplate transactionTemplate,
+                              MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.searches = meterRegistry.timer("products.search");
+        meterRegistry.gauge("products.search.documents", this, ProductSearchIndex::size);
+        meterRegistry.gauge("products.search.terms", this, index -> index.read(() -> index.postings.size()));
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        rebuild();
+    }
+
+    public int size() {
+        return read(() -> documents.size());
+    }
+
+    /**
+     * Mejores coincidencias de {@code query}, de mayor a menor puntuacion (empates por id).
+     */
+    public List<ProductResponse> search(String query, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        return searches.record(() -> read(() -> {
+            // Se parte del termino mas selectivo; el resto solo se evalua sobre sus candidatos.
+            String rarest = terms.get(0);
+            int rarestCount = Integer.MAX_VALUE;
+            for (String term : terms) {
+                int count = matches(term).values().stream().mapToInt(Map::size).sum();
+                if (count < rarestCount) {
+                    rarest = term;
+                    rarestCount = count;
+                }
+            }
+
+            Map<Long, Double> scores = new HashMap<>();
+            weights(rarest).forEach((indexed, score) -> postings.get(indexed)
+                    .forEach((id, weight) -> scores.merge(id, weight * score, Math::max)));
+            for (String term : terms) {
+                if (term.equals(rarest)) {
+                    continue;
+                }
+                // Todos los terminos deben aparecer.
+                Map<String, Double> weights = weights(term);
+                scores.entrySet().removeIf(entry -> {
+                    double score = documents.get(entry.getKey()).score(weights);
+                    entry.setValue(entry.getValue() + score);
+                    return score == 0;
+                });
+            }
+            return top(scores, limit);
+        }));
+    }
+
+    // Solo los "limit" mejores: un heap acotado en lugar de ordenar todas las coincidencias.
+    private List<ProductResponse> top(Map<Long, Double> scores, int limit) {
+        Comparator<Map.Entry<Long, Double>> ranking = Map.Entry.<Long, Double>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey());
+        PriorityQueue<Map.Entry<Long, Double>> best = new PriorityQueue<>(limit + 1, ranking.reversed());
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            if (best.size() < limit) {
+                best.add(entry);
+            } else if (ranking.compare(entry, best.peek()) < 0) {
+                best.poll();
+                best.add(entry);
+            }
+        }
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(best);
+        ranked.sort(ranking);
+        return ranked.stream().map(entry -> documents.get(entry.getKey()).product()).toList();
+    }
+
+    // Peso de cada termino indexado que casa con el de la consulta: exacto o como prefijo, por su IDF.
+    private Map<String, Double> weights(String term) {
+        Map<String, Double> weights = new HashMap<>();
+        matches(term).forEach((indexed, products) -> {
+            double idf = Math.log(1 + (double) documents.size() / products.size());
+            weights.put(indexed, indexed.equals(term) ? idf : idf * PREFIX_FACTOR);
+        });
+        return weights;
+    }
+
+    private NavigableMap<String, Map<Long, Integer>> matches(String term) {
+        return postings.subMap(term, true, term + Character.MAX_VALUE, false);
+    }
+
+    /**
+     * Sustituye el indice por el contenido actual de la base de datos. Los eventos que llegan
+     * mientras se lee pueden estar o no en esa foto; se repiten encima (aplicar un cambio dos
+     * veces no hace daño), asi que el cambio de indice no pierde ninguno.
+     */
+    public synchronized void rebuild() {
+        write(() -> changesDuringRebuild = new ArrayList<>());
+        NavigableMap<String, Map<Long, Integer>> newPostings = new TreeMap<>();
+        Map<Long, Document> newDocuments = new HashMap<>();
+        try {
+            // Del primario (transaccion de escritura), igual que ProductCounts: los eventos se aplican sobre esta foto.
+            for (ProductResponse product : transactionTemplate.execute(status -> productRepository.findAllResponses())) {
+                add(product, newPostings, newDocuments);
+            }
+        } catch (RuntimeException ex) {
+            write(() -> changesDuringRebuild = null);
+            throw ex;
+        }
+        write(() -> {
+            postings = newPostings;
+            documents = newDocuments;
+            changesDuringRebuild.forEach(Runnable::run);
+            changesDuringRebuild = null;
+        });
+        log.debug("Search index rebuilt with {} products", newDocuments.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        change(() -> apply(event));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsChanged(ProductBulkChangedEvent event) {
+        if (event.isComplete()) {
+            change(() -> event.getChanges().forEach(this::apply));
+        } else {
+            rebuild();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (event.getBefore() == null) {
+            return;
+        }
+        Long categoryId = event.getCategoryId();
+        change(() -> {
+            List<ProductResponse> affected = new ArrayList<>();
+            documents.values().forEach(document -> {
+                CategoryResponse category = document.product().getCategory();
+                if (category != null && categoryId.equals(category.getId())) {
+                    affected.add(document.product());
+                }
+            });
+            for (ProductResponse product : affected) {
+                remove(product.getId());
+                // Al borrar la categoria se van con ella sus productos; si no, solo cambia el nombre embebido.
+                if (event.getAfter() != null) {
+                    add(withCategory(product, event.getAfter()), postings, documents);
+                }
+            }
+        });
+    }
+
+    private void apply(ProductChangedEvent event) {
+        ProductResponse before = event.getBefore();
+        if (before != null) {
+            remove(before.getId());
+        }
+        if (event.getAfter() != null) {
+            remove(event.getAfter().getId());
+            add(event.getAfter(), postings, documents);
+        }
+    }
+
+    private static void add(ProductResponse product, NavigableMap<String, Map<Long, Integer>> postings,
+                            Map<Long, Document> documents) {
+        Map<String, Integer> terms = new HashMap<>();
+        tokenize(product.getDescription()).forEach(term -> terms.merge(term, DESCRIPTION_WEIGHT, Math::max));
+        tokenize(product.getName()).forEach(term -> terms.merge(term, NAME_WEIGHT, Math::max));
+        terms.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(product.getId(), weight));
+        documents.put(product.getId(), new Document(product, terms.keySet().toArray(String[]::new),
+                terms.values().stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    private void remove(Long id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (String term : document.terms()) {
+            Map<Long, Integer> products = postings.get(term);
+            if (products != null) {
+                products.remove(id);
+                if (products.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+        return SEPARATORS.splitAsStream(folded).filter(term -> !term.isEmpty()).distinct().toList();
+    }
+
+    private static ProductResponse withCategory(ProductResponse product, CategoryResponse category) {
+        return new ProductResponse(product.getId(), product.getName(), product.getPrice(), product.getDescription(),
+                category.getId(), category.getName(), product.getImageDigest(), product.getImageContentType());
+    }
+
+    private <T> T read(Supplier<T> action) {
+        lock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Aplica el cambio y, si hay un rebuild en curso, lo guarda para repetirlo sobre su foto.
+    private void change(Runnable change) {
+        write(() -> {
+            change.run();
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+        });
+    }
+
+    private void write(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Terminos de un producto con su peso de campo, como arrays: la puntuacion los recorre una vez por candidato. */
+    private record Document(ProductResponse product, String[] terms, int[] weights) {
+
+        // La mejor coincidencia del producto para un termino de la consulta (0 si no aparece).
+        double score(Map<String, Double> queryWeights) {
+            double best = 0;
+            for (int i = 0; i < terms.length; i++) {
+                Double weight = queryWeights.get(terms[i]);
+                if (weight != null) {
+                    best = Math.max(best, weights[i] * weight);
+                }
+            }
+            return best;
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package com.crud.services;
 
 import com.crud.dtos.request.ProductRequest;
+import com.crud.dtos.request.ProductUpsertRequest;
+import com.crud.dtos.response.BatchItemResponse;
+import com.crud.dtos.response.CursorPageResponse;
+import com.crud.dtos.response.FilteredPageResponse;
 import com.crud.dtos.response.PageableResponse;
 import com.crud.dtos.response.ProductResponse;
 import com.crud.entities.ProductEntity;
+import com.crud.repositories.ProductFilter;
 import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Pageable;
 import org.springframework.web.multipart.MultipartFile;
@@ -16,15 +21,24 @@ public interface ProductService {
 
     List<ProductResponse> listProducts();
     PageableResponse<ProductResponse> pageableProducts(int numeroDePagina,int medidaDePagina,String ordenarPor,String sortDir);
+    CursorPageResponse<ProductResponse> cursorProducts(String after, int medidaDePagina, String ordenarPor, String sortDir);
+    FilteredPageResponse<ProductResponse> filteredProducts(ProductFilter filter, int numeroDePagina, int medidaDePagina,
+                                                           String ordenarPor, String sortDir, boolean facets);
     ProductResponse getProductById(Long id);
+    List<ProductResponse> searchProducts(String query, int size);
     ProductResponse createProduct(ProductRequest productRequest);
     ProductResponse updateProduct(Long id, ProductRequest productRequest);
+    List<BatchItemResponse> createProducts(List<ProductRequest> productRequests);
+    List<BatchItemResponse> upsertProducts(List<ProductUpsertRequest> productRequests);
     void deleteProduct(Long id);
+    int deleteProducts(List<Long> ids);
+    int deleteProductsByCategory(Long categoryId);
+    int changePriceByCategory(Long categoryId, double percentage);
 
     File exportDataExcel(List<ProductResponse> productResponses, String formato) throws Exception;
 
     ProductResponse createProductImage(MultipartFile image, String name, Double price, String description, Long categoryId) throws IOException;
-    Resource getProductImage(Long id);
+    Resource getProductImage(Long id, String digest);
 
     ProductResponse updatedProductImage(Long id, MultipartFile image, String name, Double price, String description, Long categoryId) throws IOException;
 }
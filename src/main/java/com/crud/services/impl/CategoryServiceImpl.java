@@ -3,14 +3,16 @@ package com.crud.services.impl;
 import com.crud.dtos.request.CategoryRequest;
 import com.crud.dtos.response.CategoryResponse;
 import com.crud.entities.CategoryEntity;
+import com.crud.events.CategoryChangedEvent;
 import com.crud.exceptions.BusinessException;
 import com.crud.mapper.CategoryMapper;
 import com.crud.repositories.CategoryRepository;
+import com.crud.repositories.ProductRepository;
 import com.crud.services.CategoryService;
 import com.crud.util.AppConstants;
 import lombok.RequiredArgsConstructor;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -23,10 +25,12 @@ import java.util.Optional;
 public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
     private final CategoryMapper categoryMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
-    @Cacheable(value = "Categoria")
+    @Cacheable(value = AppConstants.CACHE_CATEGORIA, sync = true)
     @Transactional(readOnly = true)
     public List<CategoryResponse> listCategories() {
         List<CategoryEntity> productoEntities = categoryRepository.findAll();
@@ -37,7 +41,7 @@ public class CategoryServiceImpl implements CategoryService {
     }
 
     @Override
-    @Cacheable(value = "Categoria")
+    @Cacheable(value = AppConstants.CACHE_CATEGORIA, sync = true)
     @Transactional(readOnly = true)
     public CategoryResponse getCategoryById(Long id) {
         CategoryEntity category = categoryRepository.findById(id)
@@ -46,33 +50,41 @@ public class CategoryServiceImpl implements CategoryService {
 
  }
 
+    // Las entradas afectadas de "Categoria" y "Producto" se invalidan tras el commit (CategoryCacheInvalidator).
+
     @Override
-    @CacheEvict(value = "Categoria", allEntries = true)
     @Transactional
     public CategoryResponse createCategory(CategoryRequest categoryRequest) {
         CategoryEntity categoriaEntity = categoryMapper.toEntity(categoryRequest);
         CategoryEntity savedCategoryEntity = categoryRepository.save(categoriaEntity);
-        return categoryMapper.toDto(savedCategoryEntity);
+        CategoryResponse created = categoryMapper.toDto(savedCategoryEntity);
+        eventPublisher.publishEvent(CategoryChangedEvent.created(created));
+        return created;
     }
 
     @Override
-    @CacheEvict(value = "Categoria", allEntries = true)
     @Transactional
     public CategoryResponse updateCategory(Long id, CategoryRequest categoryRequest) {
         CategoryEntity categoriaEntity = categoryRepository.findById(id)
                 .orElseThrow(() -> new BusinessException(AppConstants.BAD_REQUEST, HttpStatus.BAD_REQUEST, AppConstants.BAD_REQUEST_CATEGORY + id));
+        CategoryResponse before = categoryMapper.toDto(categoriaEntity);
         categoryMapper.updateCategoryFromDto(categoryRequest, categoriaEntity);
         categoriaEntity = categoryRepository.save(categoriaEntity);
-        return categoryMapper.toDto(categoriaEntity);
+        CategoryResponse updated = categoryMapper.toDto(categoriaEntity);
+        eventPublisher.publishEvent(CategoryChangedEvent.updated(before, updated));
+        return updated;
     }
 
 
     @Override
     @Transactional
     public void deleteCategory(Long id) {
-        if (!categoryRepository.existsById(id)) {
-            throw new BusinessException(AppConstants.BAD_REQUEST, HttpStatus.BAD_REQUEST, AppConstants.BAD_REQUEST_CATEGORY + id);
-        }
-        categoryRepository.deleteById(id);
+        CategoryEntity categoriaEntity = categoryRepository.findById(id)
+                .orElseThrow(() -> new BusinessException(AppConstants.BAD_REQUEST, HttpStatus.BAD_REQUEST, AppConstants.BAD_REQUEST_CATEGORY + id));
+        CategoryResponse deleted = categoryMapper.toDto(categoriaEntity);
+        // Dos UPDATE masivos, sin cargar los productos (ni sus imagenes) en el contexto de persistencia.
+        productRepository.softDeleteByCategoryId(id);
+        categoryRepository.softDeleteById(id);
+        eventPublisher.publishEvent(CategoryChangedEvent.deleted(deleted));
     }
 }
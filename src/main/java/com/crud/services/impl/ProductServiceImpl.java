@@ -1,35 +1,59 @@
 package com.crud.services.impl;
 
 import com.crud.dtos.request.ProductRequest;
+import com.crud.dtos.request.ProductUpsertRequest;
+import com.crud.dtos.response.BatchItemResponse;
 import com.crud.dtos.response.CategoryResponse;
+import com.crud.dtos.response.CursorPageResponse;
+import com.crud.dtos.response.FilteredPageResponse;
 import com.crud.dtos.response.PageableResponse;
+import com.crud.dtos.response.ProductFacetsResponse;
 import com.crud.dtos.response.ProductResponse;
 import com.crud.entities.CategoryEntity;
 import com.crud.entities.ProductEntity;
+import com.crud.events.ProductBulkChangedEvent;
+import com.crud.events.ProductChangedEvent;
 import com.crud.exceptions.BusinessException;
 import com.crud.mapper.ProductMapper;
 import com.crud.reports.export.ResourceExport;
 import com.crud.repositories.CategoryRepository;
+import com.crud.repositories.ProductCursor;
+import com.crud.repositories.ProductFilter;
 import com.crud.repositories.ProductRepository;
+import com.crud.repositories.ProductSortField;
+import com.crud.repositories.ProductSpecifications;
+import com.crud.services.ProductBatchProperties;
+import com.crud.services.ProductCounts;
+import com.crud.services.ProductFacets;
+import com.crud.services.ProductSearchIndex;
 import com.crud.services.ProductService;
+import com.crud.storage.ImageStorage;
+import com.crud.storage.ImageStorageProperties;
+import com.crud.storage.ImageUpload;
 import com.crud.util.AppConstants;
 import lombok.RequiredArgsConstructor;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.core.io.ByteArrayResource;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.io.Resource;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.persistence.EntityNotFoundException;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.*;
 
 @Service
@@ -37,9 +61,18 @@ import java.util.*;
 public class ProductServiceImpl implements ProductService {
 
     private final ProductRepository productRepository;
+    private final ImageStorage imageStorage;
+    private final ImageStorageProperties imageStorageProperties;
     private final CategoryRepository categoryRepository;
     private final ProductMapper productMapper;
     private final ResourceExport resourceExport;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductCounts productCounts;
+    private final ProductFacets productFacets;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductBatchProperties batchProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
 
     //Image
     @Override
@@ -47,38 +80,36 @@ public class ProductServiceImpl implements ProductService {
     public ProductResponse createProductImage(MultipartFile image, String name, Double price,
                                               String description, Long categoryId) throws IOException {
 
-        byte[] imageBytes = extractImageBytes(image);
+        try (ImageUpload upload = spoolImage(image)) {
 
+            ProductRequest productRequest = new ProductRequest();
+            productRequest.setName(name);
+            productRequest.setPrice(price);
+            productRequest.setDescription(description);
+            productRequest.setCategoryId(categoryId);
 
-        ProductRequest productRequest = new ProductRequest();
-        productRequest.setName(name);
-        productRequest.setPrice(price);
-        productRequest.setDescription(description);
-        productRequest.setCategoryId(categoryId);
+            ProductEntity productEntity = productMapper.toEntity(productRequest);
 
-        ProductEntity productEntity = productMapper.toEntity(productRequest);
+            CategoryEntity categoryEntity = categoryRepository.findById(categoryId)
+                    .orElseThrow(() -> new BusinessException(AppConstants.BAD_REQUEST, HttpStatus.BAD_REQUEST, AppConstants.BAD_REQUEST_CATEGORY + categoryId));
+            productEntity.setCategory(categoryEntity);
 
-        CategoryEntity categoryEntity = categoryRepository.findById(categoryId)
-                .orElseThrow(() -> new BusinessException(AppConstants.BAD_REQUEST, HttpStatus.BAD_REQUEST, AppConstants.BAD_REQUEST_CATEGORY + categoryId));
-        productEntity.setCategory(categoryEntity);
-
-        setProductImage(productEntity, imageBytes);
-
-        ProductEntity savedProductEntity = productRepository.save(productEntity);
-        return productMapper.toDto(savedProductEntity);
+            ProductEntity savedProductEntity = productRepository.save(productEntity);
+            setProductImage(savedProductEntity, upload);
+            ProductResponse created = productMapper.toDto(savedProductEntity);
+            eventPublisher.publishEvent(ProductChangedEvent.created(created));
+            return created;
+        }
     }
 
-    private byte[] extractImageBytes(MultipartFile image) throws IOException {
-        if (image != null && !image.isEmpty()) {
-            // Verificar si se proporcionó una imagen y no está vacía
-            if (!image.getContentType().startsWith("image/")) {
-                throw new IllegalArgumentException("Invalid image file format");
-            }
-
-            return image.getBytes();
+    // La subida se copia a disco en bloques (digest, tipo y limite de tamaño al vuelo), nunca entera en memoria.
+    private ImageUpload spoolImage(MultipartFile image) throws IOException {
+        if (image == null || image.isEmpty()) {
+            return null;
+        }
+        try (InputStream content = image.getInputStream()) {
+            return ImageUpload.spool(content, imageStorageProperties.getMaxSize().toBytes(), imageStorage.spoolDirectory());
         }
-
-        return null;
     }
 
 
@@ -89,30 +120,38 @@ public class ProductServiceImpl implements ProductService {
                                                String description, Long categoryId) throws IOException {
         ProductEntity productEntity = productRepository.findById(id)
                 .orElseThrow(() -> new BusinessException(AppConstants.BAD_REQUEST, HttpStatus.BAD_REQUEST, AppConstants.BAD_REQUEST_PRODUCT + id));
+        ProductResponse before = productMapper.toDto(productEntity);
 
-        byte[] imageBytes = extractImageBytes(image);
+        try (ImageUpload upload = spoolImage(image)) {
 
-        ProductRequest productRequest = new ProductRequest();
-        productRequest.setName(name);
-        productRequest.setPrice(price);
-        productRequest.setDescription(description);
-        productRequest.setCategoryId(categoryId);
+            ProductRequest productRequest = new ProductRequest();
+            productRequest.setName(name);
+            productRequest.setPrice(price);
+            productRequest.setDescription(description);
+            productRequest.setCategoryId(categoryId);
 
-        productMapper.updateProductFromDto(productRequest, productEntity);
-        setProductImage(productEntity, imageBytes);
+            productMapper.updateProductFromDto(productRequest, productEntity);
+            setProductImage(productEntity, upload);
 
-        CategoryEntity categoryEntity = categoryRepository.findById(categoryId)
-                .orElseThrow(() -> new BusinessException(AppConstants.BAD_REQUEST, HttpStatus.BAD_REQUEST, AppConstants.BAD_REQUEST_CATEGORY + categoryId));
-        productEntity.setCategory(categoryEntity);
+            CategoryEntity categoryEntity = categoryRepository.findById(categoryId)
+                    .orElseThrow(() -> new BusinessException(AppConstants.BAD_REQUEST, HttpStatus.BAD_REQUEST, AppConstants.BAD_REQUEST_CATEGORY + categoryId));
+            productEntity.setCategory(categoryEntity);
 
-        return productMapper.toDto(productRepository.save(productEntity));
+            ProductResponse updated = productMapper.toDto(productRepository.save(productEntity));
+            eventPublisher.publishEvent(ProductChangedEvent.updated(before, updated));
+            return updated;
+        }
     }
 
-    private void setProductImage(ProductEntity productEntity, byte[] imageBytes) {
-        if (imageBytes != null) {
-            productEntity.setImage(imageBytes);
+    private void setProductImage(ProductEntity productEntity, ImageUpload upload) {
+        imageStorage.delete(productEntity.getId(), productEntity.getImageDigest());
+        if (upload != null) {
+            imageStorage.store(productEntity.getId(), upload);
+            productEntity.setImageDigest(upload.getDigest());
+            productEntity.setImageContentType(upload.getContentType().toString());
         } else {
-            productEntity.setImage(null);
+            productEntity.setImageDigest(null);
+            productEntity.setImageContentType(null);
         }
     }
 
@@ -120,73 +159,129 @@ public class ProductServiceImpl implements ProductService {
 
     //Image
     @Override
-    public Resource getProductImage(Long id) {
-        Optional<ProductEntity> optionalProductEntity = productRepository.findById(id);
-        if (optionalProductEntity.isEmpty() || optionalProductEntity.get().getImage() == null) {
-            throw new BusinessException("Image no encontrada con el ID: " + id, HttpStatus.NOT_FOUND, "Image not found");
+    @Transactional(readOnly = true)
+    public Resource getProductImage(Long id, String digest) {
+        // Digest y bytes en la misma transaccion: nunca bytes nuevos bajo un ETag viejo.
+        ProductEntity product = productRepository.findById(id)
+                .orElseThrow(() -> new BusinessException("Image no encontrada con el ID: " + id, HttpStatus.NOT_FOUND, "Image not found"));
+        if (!digest.equals(product.getImageDigest())) {
+            throw new BusinessException("P-409", HttpStatus.CONFLICT, "La imagen del producto " + id + " ha cambiado");
         }
-
-        byte[] imageBytes = optionalProductEntity.get().getImage();
-        return new ByteArrayResource(imageBytes);
+        return imageStorage.load(id, digest)
+                .orElseThrow(() -> new BusinessException("Image no encontrada con el ID: " + id, HttpStatus.NOT_FOUND, "Image not found"));
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<ProductResponse> listProducts() {
-        List<ProductEntity> productoEntities = productRepository.findAll();
-        return Optional.of(productoEntities)
+        return Optional.of(productRepository.findAllResponses())
                 .filter(list -> !list.isEmpty())
-                .map(productMapper::productsToProductDtos)
                 .orElseThrow(() -> new BusinessException("P-204", HttpStatus.NO_CONTENT, "Lista Vaciá de Productos"));
     }
 
     @Override
-    @Cacheable(value = "Producto")
+    @Cacheable(value = AppConstants.CACHE_PRODUCTO, keyGenerator = "productPageKeyGenerator", sync = true)
     @Transactional(readOnly = true)
     public PageableResponse<ProductResponse> pageableProducts(int numeroDePagina, int medidaDePagina, String ordenarPor, String sortDir) {
-        Sort sort = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name()) ? Sort.by(ordenarPor).ascending()
-                : Sort.by(ordenarPor).descending();
-        Pageable pageable = PageRequest.of(numeroDePagina, medidaDePagina, sort);
+        ProductSortField field = ProductSortField.of(ordenarPor);
+        Sort.Direction direction = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name()) ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Pageable pageable = PageRequest.of(numeroDePagina, medidaDePagina, field.sort(direction));
 
-        Page<ProductEntity> products = productRepository.findAll(pageable);
+        Slice<ProductResponse> products = productRepository.findResponsesBy(pageable);
 
-        List<ProductEntity> listProducts = products.getContent();
-        List<ProductResponse> contenido = listProducts.stream().map(productMapper::toDto).toList();
+        List<ProductResponse> contenido = products.getContent();
 
         if (contenido.isEmpty()) {
             throw new BusinessException("P-204", HttpStatus.NO_CONTENT, "Lista Vaciá de Productos");
         }
 
+        // Totales del contador en memoria; en la ultima pagina el total exacto es conocido.
+        long seen = pageable.getOffset() + contenido.size();
+        long totalElements = products.hasNext() ? Math.max(productCounts.total(), seen + 1) : seen;
+
         PageableResponse<ProductResponse> pageProductResponse = new PageableResponse<>();
         pageProductResponse.setContent(contenido);
         pageProductResponse.setPageNumber(products.getNumber());
         pageProductResponse.setPageSize(products.getSize());
-        pageProductResponse.setTotalElements(products.getTotalElements());
-        pageProductResponse.setTotalPages(products.getTotalPages());
-        pageProductResponse.setLast(products.isLast());
+        pageProductResponse.setTotalElements(totalElements);
+        pageProductResponse.setTotalPages((int) Math.ceil((double) totalElements / products.getSize()));
+        pageProductResponse.setLast(!products.hasNext());
         return pageProductResponse;
     }
 
+    // Sin cache ni COUNT: el coste de cada pagina no depende de lo lejos que este.
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ProductResponse> cursorProducts(String after, int medidaDePagina, String ordenarPor, String sortDir) {
+        ProductSortField.of(ordenarPor);
+        if (medidaDePagina < 1 || medidaDePagina > AppConstants.MAX_CURSOR_PAGE_SIZE) {
+            throw new BusinessException(AppConstants.BAD_REQUEST, HttpStatus.BAD_REQUEST,
+                    "Tamaño de pagina no valido: " + medidaDePagina + ", use uno entre 1 y " + AppConstants.MAX_CURSOR_PAGE_SIZE);
+        }
+        Sort.Direction direction = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name()) ? Sort.Direction.ASC : Sort.Direction.DESC;
+        ProductCursor cursor = StringUtils.hasText(after) ? ProductCursor.decode(after, ordenarPor, direction) : null;
+
+        // Una fila de mas indica si hay pagina siguiente.
+        List<ProductEntity> products = productRepository.findPageAfter(ordenarPor, direction, cursor, medidaDePagina + 1);
+        boolean last = products.size() <= medidaDePagina;
+        List<ProductEntity> page = last ? products : products.subList(0, medidaDePagina);
+        if (page.isEmpty()) {
+            throw new BusinessException("P-204", HttpStatus.NO_CONTENT, "Lista Vaciá de Productos");
+        }
+
+        String next = last ? null : ProductCursor.after(page.get(page.size() - 1), ordenarPor, direction).encode();
+        return new CursorPageResponse<>(page.stream().map(productMapper::toDto).toList(), medidaDePagina, next, last);
+    }
+
+    // Sin cache de paginas: el total y los facets salen de una sola agregacion cacheada por filtro.
+    @Override
+    @Transactional(readOnly = true)
+    public FilteredPageResponse<ProductResponse> filteredProducts(ProductFilter filter, int numeroDePagina, int medidaDePagina,
+                                                                  String ordenarPor, String sortDir, boolean facets) {
+        ProductSortField field = ProductSortField.of(ordenarPor);
+        if (numeroDePagina < 0 || medidaDePagina < 1) {
+            throw new BusinessException(AppConstants.BAD_REQUEST, HttpStatus.BAD_REQUEST,
+                    "Pagina no valida: " + numeroDePagina + "/" + medidaDePagina);
+        }
+        Sort.Direction direction = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name()) ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Pageable pageable = PageRequest.of(numeroDePagina, medidaDePagina, field.sort(direction));
+
+        Slice<ProductResponse> products = productRepository.findResponses(ProductSpecifications.matching(filter), pageable);
+        if (products.getContent().isEmpty()) {
+            throw new BusinessException("P-204", HttpStatus.NO_CONTENT, "Lista Vaciá de Productos");
+        }
+
+        ProductFacetsResponse counts = productFacets.facets(filter);
+        // Los conteos cacheados pueden ir por detras de la pagina recien leida.
+        long seen = pageable.getOffset() + products.getContent().size();
+        long totalElements = products.hasNext() ? Math.max(counts.getTotal(), seen + 1) : seen;
+        return new FilteredPageResponse<>(products.getContent(), products.getNumber(), products.getSize(), totalElements,
+                (int) Math.ceil((double) totalElements / products.getSize()), !products.hasNext(), facets ? counts : null);
+    }
+
     @Override
-    @Cacheable(value = "Producto")
+    @Cacheable(value = AppConstants.CACHE_PRODUCTO, sync = true)
     @Transactional(readOnly = true)
     public ProductResponse getProductById(Long id) {
-        ProductEntity entity = productRepository.findById(id)
+        return productRepository.findResponseById(id)
                 .orElseThrow(() -> new BusinessException(AppConstants.BAD_REQUEST, HttpStatus.BAD_REQUEST, AppConstants.BAD_REQUEST_PRODUCT + id));
-        return productMapper.toDto(entity);
     }
 
-/*  // SE PUEDE CONFIGURAR CUANDO ESTA RELACIONADO EN UNA SOLA LOGICA.
-    @Caching(evict = {
-			@CacheEvict(value = "Producto", allEntries = true),
-			@CacheEvict(value = "Categoria", allEntries = true)
-	})
+    // Las entradas afectadas del cache "Producto" se invalidan tras el commit (ProductCacheInvalidator);
+    // los cambios de categoria los propaga CategoryCacheInvalidator.
 
-* */
+    // Sin base de datos: responde el indice en memoria.
+    @Override
+    public List<ProductResponse> searchProducts(String query, int size) {
+        if (!StringUtils.hasText(query) || size < 1 || size > AppConstants.MAX_SEARCH_SIZE) {
+            throw new BusinessException(AppConstants.BAD_REQUEST, HttpStatus.BAD_REQUEST,
+                    "Busqueda no valida: indique 'q' y un tamaño entre 1 y " + AppConstants.MAX_SEARCH_SIZE);
+        }
+        return productSearchIndex.search(query, size);
+    }
 
     //Crear sin image
     @Override
-    @CacheEvict(value = "Producto", allEntries = true)
     @Transactional
     public ProductResponse createProduct(ProductRequest productRequest) {
         CategoryEntity categoriaEntity = categoryRepository.findById(productRequest.getCategoryId())
@@ -194,16 +289,18 @@ public class ProductServiceImpl implements ProductService {
         ProductEntity productoEntity = productMapper.toEntity(productRequest);
         productoEntity.setCategory(categoriaEntity);
         ProductEntity savedProductEntity = productRepository.save(productoEntity);
-        return productMapper.toDto(savedProductEntity);
+        ProductResponse created = productMapper.toDto(savedProductEntity);
+        eventPublisher.publishEvent(ProductChangedEvent.created(created));
+        return created;
     }
 
     //Actualizar sin image
     @Override
-    @CacheEvict(value = "Producto", allEntries = true)
     @Transactional
     public ProductResponse updateProduct(Long id, ProductRequest productRequest) {
         ProductEntity productEntity = productRepository.findById(id)
                 .orElseThrow(() -> new BusinessException(AppConstants.BAD_REQUEST, HttpStatus.BAD_REQUEST, AppConstants.BAD_REQUEST_PRODUCT + id));
+        ProductResponse before = productMapper.toDto(productEntity);
 
         // Verificar si la categoríaId es válida
         Long categoriaId = productRequest.getCategoryId();
@@ -216,16 +313,231 @@ public class ProductServiceImpl implements ProductService {
         productMapper.updateProductFromDto(productRequest, productEntity);
 
         productEntity = productRepository.save(productEntity);
-        return productMapper.toDto(productEntity);
+        ProductResponse updated = productMapper.toDto(productEntity);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(before, updated));
+        return updated;
+    }
+
+    // Sin @Transactional: cada chunk va en su propia transaccion (ver saveChunk).
+    @Override
+    public List<BatchItemResponse> createProducts(List<ProductRequest> productRequests) {
+        return saveBatch(productRequests);
+    }
+
+    @Override
+    public List<BatchItemResponse> upsertProducts(List<ProductUpsertRequest> productRequests) {
+        return saveBatch(productRequests);
+    }
+
+    private List<BatchItemResponse> saveBatch(List<? extends ProductRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new BusinessException(AppConstants.BAD_REQUEST, HttpStatus.BAD_REQUEST, "El lote no contiene productos");
+        }
+        if (requests.size() > batchProperties.getMaxItems()) {
+            throw new BusinessException("P-413", HttpStatus.PAYLOAD_TOO_LARGE,
+                    "El lote admite como maximo " + batchProperties.getMaxItems() + " productos");
+        }
+
+        // Categorias resueltas una sola vez para todo el lote, del primario (la transaccion no es de solo lectura).
+        Set<Long> categoryIds = new HashSet<>();
+        requests.forEach(request -> {
+            if (request != null && request.getCategoryId() != null) {
+                categoryIds.add(request.getCategoryId());
+            }
+        });
+        Map<Long, CategoryEntity> categories = new HashMap<>();
+        transactionTemplate.execute(status -> categoryRepository.findAllById(categoryIds))
+                .forEach(category -> categories.put(category.getId(), category));
+
+        List<BatchItemResponse> results = new ArrayList<>(requests.size());
+        int chunkSize = Math.max(1, batchProperties.getChunkSize());
+        for (int from = 0; from < requests.size(); from += chunkSize) {
+            int start = from;
+            List<? extends ProductRequest> chunk = requests.subList(from, Math.min(from + chunkSize, requests.size()));
+            try {
+                results.addAll(transactionTemplate.execute(status -> saveChunk(start, chunk, categories)));
+            } catch (RuntimeException ex) {
+                // El chunk entero se revierte; los anteriores ya estan confirmados.
+                for (int i = 0; i < chunk.size(); i++) {
+                    results.add(BatchItemResponse.failed(start + i, idOf(chunk.get(i)), "Chunk revertido: " + ex.getMessage()));
+                }
+            }
+        }
+        return results;
+    }
+
+    private List<BatchItemResponse> saveChunk(int start, List<? extends ProductRequest> chunk, Map<Long, CategoryEntity> categories) {
+        Set<Long> ids = new HashSet<>();
+        chunk.forEach(request -> {
+            Long id = idOf(request);
+            if (id != null) {
+                ids.add(id);
+            }
+        });
+        Map<Long, ProductEntity> existing = new HashMap<>();
+        if (!ids.isEmpty()) {
+            productRepository.findAllById(ids).forEach(product -> existing.put(product.getId(), product));
+        }
+
+        List<BatchItemResponse> results = new ArrayList<>(chunk.size());
+        List<ProductEntity> toSave = new ArrayList<>(chunk.size());
+        Map<ProductEntity, ProductResponse> before = new IdentityHashMap<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            ProductRequest request = chunk.get(i);
+            Long id = idOf(request);
+            String error = validateBatchItem(request, id, existing, categories);
+            if (error != null) {
+                results.add(BatchItemResponse.failed(start + i, id, error));
+                continue;
+            }
+
+            ProductEntity productEntity;
+            if (id == null) {
+                productEntity = productMapper.toEntity(request);
+            } else {
+                productEntity = existing.get(id);
+                before.put(productEntity, productMapper.toDto(productEntity));
+                productMapper.updateProductFromDto(request, productEntity);
+            }
+            if (request.getCategoryId() != null) {
+                productEntity.setCategory(categories.get(request.getCategoryId()));
+            }
+            toSave.add(productEntity);
+            results.add(null);
+        }
+
+        // Los INSERT/UPDATE se agrupan en batches JDBC al hacer flush en el commit.
+        productRepository.saveAll(toSave);
+
+        Iterator<ProductEntity> saved = toSave.iterator();
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i) != null) {
+                continue;
+            }
+            ProductEntity productEntity = saved.next();
+            ProductResponse after = productMapper.toDto(productEntity);
+            ProductResponse previous = before.get(productEntity);
+            if (previous == null) {
+                eventPublisher.publishEvent(ProductChangedEvent.created(after));
+                results.set(i, BatchItemResponse.created(start + i, after.getId()));
+            } else {
+                eventPublisher.publishEvent(ProductChangedEvent.updated(previous, after));
+                results.set(i, BatchItemResponse.updated(start + i, after.getId()));
+            }
+        }
+        return results;
+    }
+
+    private static String validateBatchItem(ProductRequest request, Long id, Map<Long, ProductEntity> existing,
+                                            Map<Long, CategoryEntity> categories) {
+        if (request == null) {
+            return "Producto vacio";
+        }
+        if (id != null && !existing.containsKey(id)) {
+            return AppConstants.BAD_REQUEST_PRODUCT + id;
+        }
+        Long categoryId = request.getCategoryId();
+        if (categoryId == null) {
+            return id == null ? "La Categoria es obligatoria" : null;
+        }
+        return categories.containsKey(categoryId) ? null : AppConstants.BAD_REQUEST_CATEGORY + categoryId;
+    }
+
+    private static Long idOf(ProductRequest request) {
+        return request instanceof ProductUpsertRequest upsert ? upsert.getId() : null;
     }
 
     @Override
     @Transactional
     public void deleteProduct(Long id) {
-        if (!productRepository.existsById(id)) {
+        // Con el producto en cache basta el UPDATE; si no, una lectura por proyeccion antes.
+        ProductResponse deleted = cachedProduct(id)
+                .or(() -> productRepository.findResponseById(id))
+                .orElseThrow(() -> new BusinessException(AppConstants.BAD_REQUEST, HttpStatus.BAD_REQUEST, AppConstants.BAD_REQUEST_PRODUCT + id));
+        if (productRepository.softDeleteByIdIn(List.of(id)) == 0) {
             throw new BusinessException(AppConstants.BAD_REQUEST, HttpStatus.BAD_REQUEST, AppConstants.BAD_REQUEST_PRODUCT + id);
         }
-        productRepository.deleteById(id);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(deleted));
+    }
+
+    // Operaciones masivas: una lectura por proyeccion de las filas afectadas (para invalidar con
+    // precision) y un unico UPDATE.
+
+    @Override
+    @Transactional
+    public int deleteProducts(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new BusinessException(AppConstants.BAD_REQUEST, HttpStatus.BAD_REQUEST, "La lista de Ids esta vacia");
+        }
+        if (ids.size() > batchProperties.getMaxItems()) {
+            throw new BusinessException("P-413", HttpStatus.PAYLOAD_TOO_LARGE,
+                    "El lote admite como maximo " + batchProperties.getMaxItems() + " productos");
+        }
+        // Como deleteProduct: un Id inexistente (o ya borrado) es un 400 y no se borra ninguno.
+        List<ProductResponse> rows = productRepository.findResponsesByIdIn(ids);
+        Set<Long> missing = new LinkedHashSet<>(ids);
+        rows.forEach(row -> missing.remove(row.getId()));
+        if (!missing.isEmpty()) {
+            throw new BusinessException(AppConstants.BAD_REQUEST, HttpStatus.BAD_REQUEST, AppConstants.BAD_REQUEST_PRODUCT + missing);
+        }
+        int deleted = productRepository.softDeleteByIdIn(ids);
+        publishBulk(rows.stream().map(ProductChangedEvent::deleted).toList(), deleted);
+        return deleted;
+    }
+
+    @Override
+    @Transactional
+    public int deleteProductsByCategory(Long categoryId) {
+        checkCategory(categoryId);
+        List<ProductResponse> rows = productRepository.findResponsesByCategoryId(categoryId);
+        int deleted = productRepository.softDeleteByCategoryId(categoryId);
+        publishBulk(rows.stream().map(ProductChangedEvent::deleted).toList(), deleted);
+        return deleted;
+    }
+
+    @Override
+    @Transactional
+    public int changePriceByCategory(Long categoryId, double percentage) {
+        if (!(percentage > -100)) {
+            throw new BusinessException(AppConstants.BAD_REQUEST, HttpStatus.BAD_REQUEST, "El porcentaje debe ser mayor que -100");
+        }
+        checkCategory(categoryId);
+        double factor = 1 + percentage / 100;
+        List<ProductResponse> rows = productRepository.findResponsesByCategoryId(categoryId);
+        int updated = productRepository.scalePriceByCategoryId(categoryId, factor);
+        publishBulk(rows.stream()
+                .map(before -> ProductChangedEvent.updated(before, withPrice(before, scalePrice(before.getPrice(), factor))))
+                .toList(), updated);
+        return updated;
+    }
+
+    // Igual que ROUND(price * factor, 2) en H2: redondeo HALF_UP sobre la representacion decimal del double.
+    private static Double scalePrice(Double price, double factor) {
+        return price != null ? BigDecimal.valueOf(price * factor).setScale(2, RoundingMode.HALF_UP).doubleValue() : null;
+    }
+
+    private void checkCategory(Long categoryId) {
+        // Cache de segundo nivel: normalmente no llega a la base de datos.
+        categoryRepository.findById(categoryId)
+                .orElseThrow(() -> new BusinessException(AppConstants.BAD_REQUEST, HttpStatus.BAD_REQUEST, AppConstants.BAD_REQUEST_CATEGORY + categoryId));
+    }
+
+    private void publishBulk(List<ProductChangedEvent> changes, int updated) {
+        if (updated > 0) {
+            eventPublisher.publishEvent(new ProductBulkChangedEvent(changes, updated == changes.size()));
+        }
+    }
+
+    private Optional<ProductResponse> cachedProduct(Long id) {
+        Cache cache = cacheManager.getCache(AppConstants.CACHE_PRODUCTO);
+        return Optional.ofNullable(cache != null ? cache.get(id, ProductResponse.class) : null);
+    }
+
+    private static ProductResponse withPrice(ProductResponse product, Double price) {
+        CategoryResponse category = product.getCategory();
+        return new ProductResponse(product.getId(), product.getName(), price, product.getDescription(),
+                category != null ? category.getId() : null, category != null ? category.getName() : null,
+                product.getImageDigest(), product.getImageContentType());
     }
 
     //Implementation Patron de diseño(SOLID)
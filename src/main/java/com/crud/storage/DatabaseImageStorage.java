@@ -0,0 +1,71 @@
+package com.crud.storage;
+
+import com.crud.entities.ProductImageEntity;
+import com.crud.repositories.ProductImageRepository;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.jdbc.BlobProxy;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Imagenes como BLOBs en {@code Producto_Imagen}, una fila por producto. Las subidas pasan en
+ * streaming del fichero temporal al INSERT.
+ */
+@RequiredArgsConstructor
+public class DatabaseImageStorage implements ImageStorage {
+
+    private final ProductImageRepository productImageRepository;
+
+    @Override
+    public void store(Long productId, ImageUpload upload) {
+        productImageRepository.deleteByProductId(productId);
+        try (InputStream content = upload.openStream()) {
+            // Flush inmediato: el INSERT consume el stream antes de cerrarlo.
+            productImageRepository.saveAndFlush(
+                    new ProductImageEntity(productId, BlobProxy.generateProxy(content, upload.getSize())));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not store image of product " + productId, ex);
+        }
+    }
+
+    @Override
+    public Optional<Resource> load(Long productId, String digest) {
+        return productImageRepository.findById(productId)
+                .map(image -> new ByteArrayResource(read(image)));
+    }
+
+    @Override
+    public CompletionStage<Boolean> delete(Long productId, String digest) {
+        boolean removed = productImageRepository.deleteByProductId(productId) > 0;
+        if (!removed || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return CompletableFuture.completedFuture(removed);
+        }
+        // El DELETE del BLOB solo cuenta si la transaccion se confirma.
+        CompletableFuture<Boolean> reclaimed = new CompletableFuture<>();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                reclaimed.complete(status == STATUS_COMMITTED);
+            }
+        });
+        return reclaimed;
+    }
+
+    private static byte[] read(ProductImageEntity image) {
+        try (InputStream in = image.getData().getBinaryStream()) {
+            return in.readAllBytes();
+        } catch (IOException | SQLException ex) {
+            throw new IllegalStateException("Could not read image of product " + image.getProductId(), ex);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.crud.storage;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.ReadableByteChannel;
+import java.util.function.Supplier;
+
+/**
+ * Recurso que solo se carga la primera vez que hace falta su contenido o su longitud. Los
+ * controladores lo devuelven junto con los validadores, asi que un 304 respondido por Spring MVC
+ * nunca lee la imagen guardada. Al cerrarlo se cierra el recurso cargado, si se llego a cargar y
+ * tiene algo abierto.
+ */
+public class DeferredResource extends AbstractResource implements Closeable {
+
+    private final String description;
+    private final Supplier<Resource> loader;
+    private Resource resource;
+
+    public DeferredResource(String description, Supplier<Resource> loader) {
+        this.description = description;
+        this.loader = loader;
+    }
+
+    synchronized Resource resolve() {
+        if (resource == null) {
+            resource = loader.get();
+        }
+        return resource;
+    }
+
+    @Override
+    public boolean exists() {
+        return resolve().exists();
+    }
+
+    @Override
+    public boolean isFile() {
+        return resolve().isFile();
+    }
+
+    @Override
+    public File getFile() throws IOException {
+        return resolve().getFile();
+    }
+
+    @Override
+    public ReadableByteChannel readableChannel() throws IOException {
+        return resolve().readableChannel();
+    }
+
+    @Override
+    public long contentLength() throws IOException {
+        return resolve().contentLength();
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return resolve().getInputStream();
+    }
+
+    @Override
+    public void close() throws IOException {
+        Resource loaded;
+        synchronized (this) {
+            loaded = resource;
+        }
+        if (loaded instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+}
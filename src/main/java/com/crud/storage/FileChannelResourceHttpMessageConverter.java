@@ -0,0 +1,79 @@
+package com.crud.storage;
+
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.ResourceHttpMessageConverter;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Escribe los recursos respaldados por un fichero sin copiarlos por el heap: el cuerpo se pasa
+ * al sendfile de Tomcat si el conector lo soporta y, si no, se envia con
+ * {@link FileChannel#transferTo} desde el propio canal del recurso. Un {@link OpenFileResource}
+ * nunca va por sendfile: Tomcat lo reabriria por nombre, y puede haberse borrado. Cualquier otro
+ * recurso se escribe como siempre. Una respuesta HEAD no escribe cuerpo: un recurso abierto solo
+ * para medir su longitud se cierra.
+ */
+public class FileChannelResourceHttpMessageConverter extends ResourceHttpMessageConverter {
+
+    static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    @Override
+    protected void writeContent(Resource resource, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        HttpServletRequest request = currentRequest();
+        if (request != null && HttpMethod.HEAD.matches(request.getMethod())) {
+            if (resource instanceof Closeable closeable) {
+                closeable.close();
+            }
+            return;
+        }
+        if (!resource.isFile()) {
+            super.writeContent(resource, outputMessage);
+            return;
+        }
+        long length = resource.contentLength();
+        if (request != null && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT)) && !isOpenFile(resource)) {
+            // Content-Length ya esta fijado; Tomcat envia el fichero al confirmar la respuesta.
+            request.setAttribute(SENDFILE_FILENAME, resource.getFile().getAbsolutePath());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, length);
+            return;
+        }
+        try (ReadableByteChannel channel = resource.readableChannel()) {
+            if (!(channel instanceof FileChannel file)) {
+                StreamUtils.copy(Channels.newInputStream(channel), outputMessage.getBody());
+                return;
+            }
+            WritableByteChannel out = Channels.newChannel(outputMessage.getBody());
+            long position = 0;
+            while (position < length) {
+                position += file.transferTo(position, length - position, out);
+            }
+        }
+    }
+
+    private static boolean isOpenFile(Resource resource) {
+        Resource target = resource instanceof DeferredResource deferred ? deferred.resolve() : resource;
+        return target instanceof OpenFileResource;
+    }
+
+    private static HttpServletRequest currentRequest() {
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                ? attributes.getRequest() : null;
+    }
+}
@@ -0,0 +1,145 @@
+package com.crud.storage;
+
+import com.crud.repositories.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Almacen en disco local direccionado por contenido: {@code <directory>/<2 primeros hex>/<sha-256>}.
+ * Las imagenes identicas se guardan una vez; un fichero solo se borra cuando ya no lo referencia
+ * ninguna fila de producto (incluidas las borradas logicamente).
+ * <p>
+ * Guardar y borrar un mismo digest van serializados, y un digest guardado por una transaccion que
+ * aun no ha terminado cuenta como referenciado: si no, un borrado confirmado entretanto no veria
+ * la fila nueva y borraria el fichero al que esta a punto de apuntar. Si esa transaccion hace
+ * rollback, el fichero se vuelve a borrar salvo que otra cosa lo referencie.
+ */
+@Slf4j
+public class FileSystemImageStorage implements ImageStorage {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final Path root;
+    private final ProductRepository productRepository;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    /** Digests guardados por transacciones aun en curso, con cuantas de ellas. */
+    private final Map<String, Integer> pending = new HashMap<>();
+
+    public FileSystemImageStorage(Path root, ProductRepository productRepository) {
+        this.root = root.toAbsolutePath().normalize();
+        this.productRepository = productRepository;
+        Arrays.setAll(locks, i -> new Object());
+    }
+
+    @Override
+    public void store(Long productId, ImageUpload upload) {
+        String digest = upload.getDigest();
+        Path target = pathOf(digest);
+        synchronized (lockFor(digest)) {
+            if (!Files.exists(target)) {
+                try {
+                    Files.createDirectories(target.getParent());
+                    // El spool vive en el mismo disco: guardar es un rename atomico, nunca un fichero a medias.
+                    Files.move(upload.getFile(), target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException("Could not store image " + digest, ex);
+                }
+            }
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                pending.merge(digest, 1, Integer::sum);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        release(digest, status == STATUS_COMMITTED);
+                    }
+                });
+            }
+        }
+    }
+
+    private void release(String digest, boolean committed) {
+        synchronized (lockFor(digest)) {
+            pending.computeIfPresent(digest, (key, count) -> count > 1 ? count - 1 : null);
+        }
+        if (!committed) {
+            deleteIfUnreferenced(digest);
+        }
+    }
+
+    @Override
+    public Optional<Resource> load(Long productId, String digest) {
+        if (digest == null) {
+            return Optional.empty();
+        }
+        Path path = pathOf(digest);
+        return Files.isReadable(path) ? Optional.of(new FileSystemResource(path)) : Optional.empty();
+    }
+
+    @Override
+    public CompletionStage<Boolean> delete(Long productId, String digest) {
+        if (digest == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return CompletableFuture.completedFuture(deleteIfUnreferenced(digest));
+        }
+        CompletableFuture<Boolean> reclaimed = new CompletableFuture<>();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    reclaimed.complete(status == STATUS_COMMITTED && deleteIfUnreferenced(digest));
+                } catch (RuntimeException ex) {
+                    reclaimed.completeExceptionally(ex);
+                }
+            }
+        });
+        return reclaimed;
+    }
+
+    // true solo si el fichero existia y se ha borrado.
+    private boolean deleteIfUnreferenced(String digest) {
+        synchronized (lockFor(digest)) {
+            if (pending.containsKey(digest) || productRepository.countByImageDigest(digest) > 0) {
+                return false;
+            }
+            try {
+                return Files.deleteIfExists(pathOf(digest));
+            } catch (IOException ex) {
+                log.warn("Could not delete unreferenced image {}: {}", digest, ex.getMessage());
+                return false;
+            }
+        }
+    }
+
+    private Object lockFor(String digest) {
+        return locks[Math.floorMod(digest.hashCode(), LOCK_STRIPES)];
+    }
+
+    @Override
+    public Path spoolDirectory() {
+        return root.resolve("tmp");
+    }
+
+    Path pathOf(String digest) {
+        if (digest.length() < 3 || !digest.chars().allMatch(c -> Character.digit(c, 16) >= 0)) {
+            throw new IllegalArgumentException("Invalid image digest: " + digest);
+        }
+        return root.resolve(digest.substring(0, 2)).resolve(digest);
+    }
+}
@@ -0,0 +1,67 @@
+package com.crud.storage;
+
+import com.crud.repositories.ProductImageRepository;
+import com.crud.repositories.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Mueve los BLOBs que quedan en {@code Producto_Imagen} al almacenamiento en disco cuando la
+ * aplicacion arranca con {@code --migrate-images}. Cada imagen se copia, se guarda su digest en
+ * el producto y se borra su fila en una sola transaccion, asi que el comando se puede
+ * interrumpir y volver a lanzar.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ImageMigrationRunner implements ApplicationRunner {
+
+    public static final String OPTION = "migrate-images";
+
+    private final ProductImageRepository productImageRepository;
+    private final ProductRepository productRepository;
+    private final ImageStorage imageStorage;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(OPTION)) {
+            return;
+        }
+        List<Long> productIds = productImageRepository.findAllProductIds();
+        log.info("Migrating {} product images to the filesystem store", productIds.size());
+        int migrated = 0;
+        for (Long productId : productIds) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> migrate(productId));
+                migrated++;
+            } catch (RuntimeException ex) {
+                log.error("Could not migrate image of product {}: {}", productId, ex.getMessage());
+            }
+        }
+        log.info("Image migration finished: {} of {} moved", migrated, productIds.size());
+    }
+
+    private void migrate(Long productId) {
+        productImageRepository.findById(productId).ifPresent(image -> {
+            try (InputStream content = image.getData().getBinaryStream();
+                 ImageUpload upload = ImageUpload.spool(content, Long.MAX_VALUE, imageStorage.spoolDirectory())) {
+                imageStorage.store(productId, upload);
+                productRepository.updateImage(productId, upload.getDigest(), upload.getContentType().toString());
+                productImageRepository.deleteByProductId(productId);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            } catch (SQLException ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+    }
+}
@@ -0,0 +1,40 @@
+package com.crud.storage;
+
+import org.springframework.core.io.Resource;
+
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Donde se guardan los bytes de las imagenes de producto. Se elige con {@code app.images.storage}
+ * ({@code database} o {@code filesystem}).
+ */
+public interface ImageStorage {
+
+    /**
+     * Guarda la imagen de un producto, reemplazando la anterior si la hay. La storage puede mover
+     * el fichero temporal en lugar de copiarlo.
+     */
+    void store(Long productId, ImageUpload upload);
+
+    /**
+     * La imagen guardada, o vacio si el producto no tiene. Los recursos respaldados por un
+     * fichero se sirven sin copia (ver {@link FileChannelResourceHttpMessageConverter}).
+     */
+    Optional<Resource> load(Long productId, String digest);
+
+    /**
+     * Descarta la imagen que un producto ya no usa. Se completa indicando si los bytes se liberaron
+     * de verdad, lo que solo se sabe cuando termina la transaccion actual (si la hay): no se libera
+     * nada en un rollback, ni mientras otro producto siga referenciando la imagen.
+     */
+    CompletionStage<Boolean> delete(Long productId, String digest);
+
+    /**
+     * Donde se vuelcan las subidas antes de {@link #store}.
+     */
+    default Path spoolDirectory() {
+        return Path.of(System.getProperty("java.io.tmpdir"));
+    }
+}
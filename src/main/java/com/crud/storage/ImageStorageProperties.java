@@ -0,0 +1,49 @@
+package com.crud.storage;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.images")
+public class ImageStorageProperties {
+
+    private Type storage = Type.DATABASE;
+
+    /** Raiz del almacen direccionado por contenido cuando {@code storage=filesystem}. */
+    private Path directory = Path.of("images");
+
+    /** Imagen mas grande que se acepta; se comprueba mientras llega la subida. */
+    private DataSize maxSize = DataSize.ofMegabytes(20);
+
+    /** max-age de Cache-Control de una imagen pedida sin digest {@code ?v=} (o con uno desfasado). */
+    private Duration cacheMaxAge = Duration.ofHours(1);
+
+    /** max-age de Cache-Control, marcado immutable, cuando {@code ?v=} coincide con el digest actual. */
+    private Duration versionedCacheMaxAge = Duration.ofDays(365);
+
+    private Variants variants = new Variants();
+
+    public enum Type {
+        DATABASE, FILESYSTEM
+    }
+
+    @Getter
+    @Setter
+    public static class Variants {
+
+        /** Cache en disco de las imagenes redimensionadas. */
+        private Path directory = Path.of("image-variants");
+        /** Por encima de este tamaño total se borran las variantes usadas hace mas tiempo. */
+        private DataSize maxSize = DataSize.ofMegabytes(512);
+        /** Anchos que se pueden pedir con {@code ?w=}; cualquier otro se rechaza para que no se pueda inundar la cache. */
+        private List<Integer> widths = new ArrayList<>(List.of(64, 128, 256, 512, 1024));
+    }
+}
@@ -0,0 +1,108 @@
+package com.crud.storage;
+
+import com.crud.exceptions.BusinessException;
+import com.crud.util.ContentDigest;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+
+/**
+ * Imagen subida volcada a un fichero temporal. La subida se lee una sola vez con un buffer fijo
+ * que calcula el digest SHA-256, aplica el limite de tamaño segun llegan los bytes y detecta el
+ * formato por el numero magico, asi que la memoria por subida es constante.
+ * Al cerrarla se borra el fichero temporal, salvo que la storage ya lo haya movido.
+ */
+@Getter
+public final class ImageUpload implements Closeable {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int HEADER_SIZE = 12;
+
+    private final Path file;
+    private final String digest;
+    private final long size;
+    private final MediaType contentType;
+
+    private ImageUpload(Path file, String digest, long size, MediaType contentType) {
+        this.file = file;
+        this.digest = digest;
+        this.size = size;
+        this.contentType = contentType;
+    }
+
+    public static ImageUpload spool(InputStream content, long maxSize, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path file = Files.createTempFile(directory, "upload-", ".tmp");
+        try (InputStream in = new BufferedInputStream(content, BUFFER_SIZE); OutputStream out = Files.newOutputStream(file)) {
+            in.mark(HEADER_SIZE);
+            MediaType contentType = sniff(in.readNBytes(HEADER_SIZE));
+            in.reset();
+
+            MessageDigest digest = ContentDigest.newDigest();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long size = 0;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                size += read;
+                if (size > maxSize) {
+                    throw new BusinessException("P-413", HttpStatus.PAYLOAD_TOO_LARGE,
+                            "La imagen supera el tamaño maximo de " + maxSize + " bytes");
+                }
+                digest.update(buffer, 0, read);
+                out.write(buffer, 0, read);
+            }
+            return new ImageUpload(file, ContentDigest.toHex(digest.digest()), size, contentType);
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(file);
+            throw ex;
+        }
+    }
+
+    public InputStream openStream() throws IOException {
+        return Files.newInputStream(file);
+    }
+
+    @Override
+    public void close() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    // Se decide por los primeros bytes, no por el Content-Type que envia el cliente.
+    static MediaType sniff(byte[] header) {
+        if (startsWith(header, 0, 0xFF, 0xD8, 0xFF)) {
+            return MediaType.IMAGE_JPEG;
+        }
+        if (startsWith(header, 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return MediaType.IMAGE_PNG;
+        }
+        if (startsWith(header, 0, 'G', 'I', 'F', '8')) {
+            return MediaType.IMAGE_GIF;
+        }
+        if (startsWith(header, 0, 'R', 'I', 'F', 'F') && startsWith(header, 8, 'W', 'E', 'B', 'P')) {
+            return MediaType.parseMediaType("image/webp");
+        }
+        throw new BusinessException("P-415", HttpStatus.UNSUPPORTED_MEDIA_TYPE,
+                "Formato de imagen no soportado (JPEG, PNG, GIF o WebP)");
+    }
+
+    private static boolean startsWith(byte[] header, int offset, int... magic) {
+        if (header.length < offset + magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if ((header[offset + i] & 0xFF) != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,229 @@
+package com.crud.storage;
+
+import com.crud.exceptions.BusinessException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Variantes redimensionadas de las imagenes de producto, generadas con ImageIO en la primera
+ * peticion y guardadas en disco local como {@code <directory>/<2 primeros hex>/<digest>-w<width>.<format>}.
+ * Las claves llevan el digest de la imagen, asi que al reemplazar una imagen sus variantes viejas
+ * simplemente dejan de usarse; el directorio se acota por bytes totales y expulsa los ficheros
+ * usados hace mas tiempo.
+ * <p>
+ * Las variantes se entregan ya abiertas: una expulsion puede borrar el fichero mientras una
+ * respuesta aun lo esta enviando, y el descriptor abierto mantiene los bytes legibles hasta cerrarlo.
+ */
+@Slf4j
+public class ImageVariantCache {
+
+    private static final String TMP_SUFFIX = ".tmp";
+    private static final int LOCK_STRIPES = 64;
+
+    private final Path root;
+    private final long maxBytes;
+    private final List<Integer> widths;
+    private final Map<Path, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Object[] generating = new Object[LOCK_STRIPES];
+    private final Counter generated;
+    private final Counter evicted;
+    private long totalBytes;
+
+    public ImageVariantCache(ImageStorageProperties.Variants properties, MeterRegistry meterRegistry) {
+        this.root = properties.getDirectory().toAbsolutePath().normalize();
+        this.maxBytes = properties.getMaxSize().toBytes();
+        this.widths = List.copyOf(properties.getWidths());
+        this.generated = meterRegistry.counter("images.variants.generated");
+        this.evicted = meterRegistry.counter("images.variants.evicted");
+        Arrays.setAll(generating, i -> new Object());
+        load();
+    }
+
+    /**
+     * La variante de una imagen, generada a partir de {@code original} si no esta en disco.
+     *
+     * @param format {@code jpeg} o {@code png}
+     */
+    public Resource get(String digest, int width, String format, Supplier<Resource> original) {
+        checkWidth(width);
+        Path path = pathOf(digest, width, format);
+        Resource variant = open(path);
+        if (variant != null) {
+            return variant;
+        }
+        // Una sola generacion por variante aunque lleguen peticiones concurrentes.
+        synchronized (generating[Math.floorMod(path.hashCode(), LOCK_STRIPES)]) {
+            variant = open(path);
+            return variant != null ? variant : generate(original.get(), width, format, path);
+        }
+    }
+
+    public void checkWidth(int width) {
+        if (!widths.contains(width)) {
+            throw new BusinessException("P-400", HttpStatus.BAD_REQUEST, "Ancho no permitido: " + width + ", use uno de " + widths);
+        }
+    }
+
+    private Resource generate(Resource original, int width, String format, Path target) {
+        try {
+            Files.createDirectories(target.getParent());
+            BufferedImage resized = resize(original, width, format);
+            Path tmp = Files.createTempFile(target.getParent(), target.getFileName().toString(), TMP_SUFFIX);
+            try {
+                ImageIO.write(resized, format, tmp.toFile());
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+            generated.increment();
+            return addAndOpen(target, Files.size(target));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not generate image variant " + target.getFileName(), ex);
+        }
+    }
+
+    private static BufferedImage resize(Resource original, int width, String format) throws IOException {
+        try (InputStream in = original.getInputStream(); ImageInputStream input = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new BusinessException("P-415", HttpStatus.UNSUPPORTED_MEDIA_TYPE, "No se pueden generar variantes de este formato de imagen");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int sourceWidth = reader.getWidth(0);
+                // Submuestreo al decodificar: una imagen grande nunca se descomprime entera en memoria.
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, sourceWidth / (width * 2));
+                param.setSourceSubsampling(step, step, 0, 0);
+                return scale(reader.read(0, param), Math.min(width, sourceWidth), format);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage source, int width, String format) {
+        int height = Math.max(1, Math.round((float) source.getHeight() * width / source.getWidth()));
+        int type = "png".equals(format) ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage target = new BufferedImage(width, height, type);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            if (type == BufferedImage.TYPE_INT_RGB) {
+                // JPEG no tiene transparencia: fondo blanco en lugar de negro.
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, width, height);
+            }
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    // Abrir y expulsar comparten el monitor: lo que se abre aqui no puede desaparecer antes.
+    private synchronized Resource open(Path path) {
+        if (entries.get(path) == null) {
+            return null;
+        }
+        try {
+            return new OpenFileResource(path, FileChannel.open(path, StandardOpenOption.READ));
+        } catch (IOException ex) {
+            // Borrada por fuera del cache: se vuelve a generar.
+            totalBytes -= entries.remove(path);
+            return null;
+        }
+    }
+
+    private synchronized Resource addAndOpen(Path path, long size) throws IOException {
+        add(path, size);
+        return new OpenFileResource(path, FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    private synchronized void add(Path path, long size) {
+        Long previous = entries.put(path, size);
+        totalBytes += size - (previous != null ? previous : 0);
+        Iterator<Map.Entry<Path, Long>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<Path, Long> entry = eldest.next();
+            if (entry.getKey().equals(path)) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(entry.getKey());
+            } catch (IOException ex) {
+                log.warn("Could not evict image variant {}: {}", entry.getKey(), ex.getMessage());
+            }
+            totalBytes -= entry.getValue();
+            eldest.remove();
+            evicted.increment();
+        }
+    }
+
+    // Al arrancar se recupera lo que hay en disco, del acceso mas antiguo al mas reciente.
+    private void load() {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(root)) {
+            files.filter(Files::isRegularFile)
+                    .filter(file -> {
+                        if (!file.getFileName().toString().endsWith(TMP_SUFFIX)) {
+                            return true;
+                        }
+                        file.toFile().delete();
+                        return false;
+                    })
+                    .sorted(Comparator.comparing(ImageVariantCache::lastModified))
+                    .forEach(file -> add(file, file.toFile().length()));
+        } catch (IOException ex) {
+            log.warn("Could not scan image variant directory {}: {}", root, ex.getMessage());
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException ex) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private Path pathOf(String digest, int width, String format) {
+        if (digest.length() < 3 || !digest.chars().allMatch(c -> Character.digit(c, 16) >= 0)) {
+            throw new IllegalArgumentException("Invalid image digest: " + digest);
+        }
+        return root.resolve(digest.substring(0, 2)).resolve(digest + "-w" + width + "." + format);
+    }
+}
@@ -0,0 +1,87 @@
+package com.crud.storage;
+
+import org.springframework.core.io.AbstractResource;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Fichero abierto antes de entregarlo, para que siga siendo legible aunque se borre entretanto.
+ * El primer stream lee el canal ya abierto y lo cierra; los siguientes (varios rangos de bytes de
+ * una respuesta) reabren el fichero por su ruta. Al cerrarlo se libera el canal si ningun stream
+ * lo tomo (HEAD, o una respuesta que fallo antes del cuerpo).
+ */
+public class OpenFileResource extends AbstractResource implements Closeable {
+
+    private final Path path;
+    private FileChannel channel;
+
+    public OpenFileResource(Path path, FileChannel channel) {
+        this.path = path;
+        this.channel = channel;
+    }
+
+    @Override
+    public boolean exists() {
+        return true;
+    }
+
+    // Es un fichero: FileChannelResourceHttpMessageConverter lo envia con transferTo desde el canal abierto.
+    @Override
+    public boolean isFile() {
+        return true;
+    }
+
+    @Override
+    public File getFile() {
+        return path.toFile();
+    }
+
+    @Override
+    public long contentLength() throws IOException {
+        synchronized (this) {
+            if (channel != null) {
+                return channel.size();
+            }
+        }
+        return Files.size(path);
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return Channels.newInputStream(readableChannel());
+    }
+
+    @Override
+    public synchronized ReadableByteChannel readableChannel() throws IOException {
+        FileChannel open = channel != null ? channel.position(0) : FileChannel.open(path, StandardOpenOption.READ);
+        channel = null;
+        return open;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    @Override
+    public String getFilename() {
+        return path.getFileName().toString();
+    }
+
+    @Override
+    public String getDescription() {
+        return "open file [" + path + "]";
+    }
+}
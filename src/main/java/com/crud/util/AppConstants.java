@@ -22,6 +22,17 @@ public final class AppConstants {
     public static final String MEDIDA_DE_PAGINA_POR_DEFECTO = "10";
     public static final String ORDENAR_POR_DEFECTO = "id";
     public static final String ORDENAR_DIRECCION_POR_DEFECTO = "asc";
+    public static final String MEDIDA_DE_BUSQUEDA_POR_DEFECTO = "20";
+    public static final int MAX_SEARCH_SIZE = 100;
+    public static final int MAX_CURSOR_PAGE_SIZE = 100;
+    public static final int MAX_FILTER_CATEGORIES = 100;
+
+    // =============================================================================================
+    // NOMBRES DE CACHE
+    // =============================================================================================
+    public static final String CACHE_PRODUCTO = "Producto";
+    public static final String CACHE_CATEGORIA = "Categoria";
+    public static final String CACHE_PRODUCTO_FACETAS = "ProductoFacetas";
 
     // =============================================================================================
     // TIPOS DE FORMATOS DE ARCHIVOS
@@ -0,0 +1,30 @@
+package com.crud.util;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Digests SHA-256 del contenido subido, en hexadecimal en minusculas. Se calculan una vez al
+ * subir y se guardan, asi que las lecturas nunca tienen que volver a calcularlos.
+ */
+public final class ContentDigest {
+
+    public static final String ALGORITHM = "SHA-256";
+
+    private ContentDigest() {
+    }
+
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException ex) {
+            // Toda JVM debe soportar SHA-256.
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    public static String toHex(byte[] digest) {
+        return HexFormat.of().formatHex(digest);
+    }
+}
@@ -0,0 +1,103 @@
+package com.crud.config.cache;
+
+import com.crud.dtos.response.CategoryResponse;
+import com.crud.dtos.response.PageableResponse;
+import com.crud.dtos.response.ProductResponse;
+import com.crud.events.CategoryChangedEvent;
+import com.crud.util.AppConstants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.cache.support.SimpleCacheManager;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Los productos 1 y 2 son de la categoria 10, el 3 de la 20. La pagina 0 tiene los productos
+ * 1 y 3, la pagina 1 solo el producto 4 de la categoria 20.
+ */
+class CategoryCacheInvalidatorTests {
+
+    private static final ProductPageKey MIXED = ProductPageKey.of(0, 2, "id", "asc");
+    private static final ProductPageKey OTHER = ProductPageKey.of(1, 2, "id", "asc");
+
+    private final ProductCacheIndex index = new ProductCacheIndex();
+    private final Cache products = new ListeningCache(new ConcurrentMapCache(AppConstants.CACHE_PRODUCTO), index);
+    private final Cache categories = new ConcurrentMapCache(AppConstants.CACHE_CATEGORIA);
+    private final Cache facets = new ConcurrentMapCache(AppConstants.CACHE_PRODUCTO_FACETAS);
+    private CategoryCacheInvalidator invalidator;
+
+    @BeforeEach
+    void fillCaches() {
+        SimpleCacheManager manager = new SimpleCacheManager();
+        manager.setCaches(List.of(products, categories, facets));
+        manager.initializeCaches();
+        invalidator = new CategoryCacheInvalidator(manager, index, mock(EntityManagerFactory.class));
+
+        products.put(1L, product(1L, 10L));
+        products.put(2L, product(2L, 10L));
+        products.put(3L, product(3L, 20L));
+        products.put(MIXED, page(0, product(1L, 10L), product(3L, 20L)));
+        products.put(OTHER, page(1, product(4L, 20L)));
+        categories.put(10L, category(10L, "Hogar"));
+        categories.put(20L, category(20L, "Jardin"));
+        categories.put(SimpleKey.EMPTY, List.of(category(10L, "Hogar"), category(20L, "Jardin")));
+        facets.put(SimpleKey.EMPTY, List.of());
+    }
+
+    @Test
+    void renameEvictsOnlyTheProductsAndPagesThatEmbedTheCategory() {
+        invalidator.onCategoryChanged(CategoryChangedEvent.updated(category(10L, "Hogar"), category(10L, "Casa")));
+
+        assertThat(products.get(1L)).isNull();
+        assertThat(products.get(2L)).isNull();
+        assertThat(products.get(MIXED)).isNull();
+        assertThat(products.get(3L)).isNotNull();
+        assertThat(products.get(OTHER)).isNotNull();
+
+        assertThat(categories.get(10L)).isNull();
+        assertThat(categories.get(SimpleKey.EMPTY)).isNull();
+        assertThat(categories.get(20L)).isNotNull();
+        assertThat(facets.get(SimpleKey.EMPTY)).isNotNull();
+    }
+
+    @Test
+    void updateThatKeepsTheNameLeavesTheProductCacheAlone() {
+        invalidator.onCategoryChanged(CategoryChangedEvent.updated(category(10L, "Hogar"), category(10L, "Hogar")));
+
+        assertThat(products.get(1L)).isNotNull();
+        assertThat(products.get(MIXED)).isNotNull();
+        assertThat(categories.get(10L)).isNull();
+    }
+
+    @Test
+    void deleteClearsEveryProductEntryAndFacet() {
+        invalidator.onCategoryChanged(CategoryChangedEvent.deleted(category(20L, "Jardin")));
+
+        assertThat(products.get(1L)).isNull();
+        assertThat(products.get(OTHER)).isNull();
+        assertThat(facets.get(SimpleKey.EMPTY)).isNull();
+        assertThat(categories.get(10L)).isNotNull();
+    }
+
+    private static PageableResponse<ProductResponse> page(int number, ProductResponse... rows) {
+        return new PageableResponse<>(List.of(rows), number, 2, 3, 2, number == 1);
+    }
+
+    private static ProductResponse product(Long id, Long categoryId) {
+        return new ProductResponse(id, "p" + id, 1.0, null, categoryId, "c" + categoryId, null, null);
+    }
+
+    private static CategoryResponse category(Long id, String name) {
+        CategoryResponse category = new CategoryResponse();
+        category.setId(id);
+        category.setName(name);
+        return category;
+    }
+}
@@ -0,0 +1,165 @@
+package com.crud.config.cache;
+
+import com.crud.exceptions.BusinessException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CoalescingCacheTests {
+
+    private static final int CALLERS = 8;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentMissesRunTheLoaderOnce() throws Exception {
+        CoalescingCache cache = cache(Duration.ofSeconds(5));
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = callConcurrently(() -> cache.get("k", () -> {
+            calls.incrementAndGet();
+            release.await();
+            return "value";
+        }));
+        awaitFollowers(CALLERS - 1);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+        }
+        assertThat(calls).hasValue(1);
+        assertThat(cache.get("k", String.class)).isEqualTo("value");
+        assertThat(meterRegistry.counter("cache.coalescing.loads", "cache", "test").count()).isEqualTo(1);
+    }
+
+    @Test
+    void loaderFailureReachesEveryWaiterAndIsNotCached() throws Exception {
+        CoalescingCache cache = cache(Duration.ofSeconds(5));
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = callConcurrently(() -> cache.get("k", () -> {
+            release.await();
+            throw new IllegalStateException("database down");
+        }));
+        awaitFollowers(CALLERS - 1);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .hasRootCauseInstanceOf(IllegalStateException.class).hasRootCauseMessage("database down");
+        }
+        assertThat(cache.get("k")).isNull();
+        // Sin carga en curso: la siguiente llamada vuelve a intentar.
+        assertThat(cache.get("k", () -> "retried")).isEqualTo("retried");
+    }
+
+    @Test
+    void waiterGivesUpAfterTimeoutWhileTheLeaderCompletes() throws Exception {
+        CoalescingCache cache = cache(Duration.ofMillis(50));
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> leader = executor.submit(() -> cache.get("k", () -> {
+            release.await();
+            return "slow";
+        }));
+        awaitLoadStarted(cache);
+
+        assertThatThrownBy(() -> cache.get("k", () -> "unused"))
+                .isInstanceOf(Cache.ValueRetrievalException.class)
+                .hasCauseInstanceOf(BusinessException.class);
+        assertThat(meterRegistry.counter("cache.coalescing.timeouts", "cache", "test").count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("slow");
+        assertThat(cache.get("k", String.class)).isEqualTo("slow");
+    }
+
+    @Test
+    void evictDetachesTheLoadInProgress() throws Exception {
+        CoalescingCache cache = cache(Duration.ofSeconds(5));
+        CountDownLatch release = new CountDownLatch(1);
+
+        // La carga lee antes de la escritura que provoca el evict.
+        Future<String> before = executor.submit(() -> cache.get("k", () -> {
+            release.await();
+            return "old";
+        }));
+        awaitLoadStarted(cache);
+        cache.evict("k");
+
+        // No se une a la carga anterior: hace la suya.
+        assertThat(cache.get("k", () -> "new")).isEqualTo("new");
+        release.countDown();
+
+        assertThat(before.get(5, TimeUnit.SECONDS)).isEqualTo("old");
+        assertThat(cache.get("k", String.class)).isEqualTo("new");
+    }
+
+    @Test
+    void loadRunningDuringAClearIsNotStored() throws Exception {
+        CoalescingCache cache = cache(Duration.ofSeconds(5));
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> before = executor.submit(() -> cache.get("k", () -> {
+            release.await();
+            return "old";
+        }));
+        awaitLoadStarted(cache);
+        cache.clear();
+        release.countDown();
+
+        assertThat(before.get(5, TimeUnit.SECONDS)).isEqualTo("old");
+        assertThat(cache.get("k")).isNull();
+    }
+
+    private CoalescingCache cache(Duration timeout) {
+        return new CoalescingCache(new ConcurrentMapCache("test"), timeout, meterRegistry);
+    }
+
+    private List<Future<String>> callConcurrently(Callable<String> call) {
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(call));
+        }
+        return results;
+    }
+
+    private void awaitFollowers(int followers) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.counter("cache.coalescing.coalesced", "cache", "test").count() < followers
+                && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private void awaitLoadStarted(CoalescingCache cache) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.counter("cache.coalescing.loads", "cache", cache.getName()).count() < 1
+                && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
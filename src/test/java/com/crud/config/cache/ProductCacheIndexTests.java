@@ -0,0 +1,165 @@
+package com.crud.config.cache;
+
+import com.crud.config.cache.cluster.SharedCacheTier;
+import com.crud.dtos.response.PageableResponse;
+import com.crud.dtos.response.ProductResponse;
+import com.crud.events.ProductChangedEvent;
+import com.crud.util.AppConstants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.support.SimpleCacheManager;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Dos paginas cacheadas del listado ordenado por precio ascendente, de dos filas cada una, 6
+ * filas en total: pagina 0 = [10, 15], pagina 1 = [20, 30].
+ */
+class ProductCacheIndexTests {
+
+    private static final ProductPageKey FIRST = ProductPageKey.of(0, 2, "price", "asc");
+    private static final ProductPageKey SECOND = ProductPageKey.of(1, 2, "price", "asc");
+
+    private final ProductCacheIndex index = new ProductCacheIndex();
+
+    @BeforeEach
+    void cachePages() {
+        index.onPut(FIRST, page(0, product(1L, 10.0), product(2L, 15.0)));
+        index.onPut(SECOND, page(1, product(3L, 20.0), product(4L, 30.0)));
+    }
+
+    @Test
+    void insertAfterEveryCachedPageOnlyPatchesTotals() {
+        ProductCacheIndex.InvalidationPlan plan = index.plan(List.of(ProductChangedEvent.created(product(9L, 40.0))));
+
+        assertThat(plan.getEvictions()).containsExactly(9L);
+        assertThat(plan.getRecounts()).containsEntry(FIRST, 1).containsEntry(SECOND, 1);
+    }
+
+    @Test
+    void insertInsideAPageEvictsItAndPatchesEarlierPages() {
+        ProductCacheIndex.InvalidationPlan plan = index.plan(List.of(ProductChangedEvent.created(product(9L, 25.0))));
+
+        assertThat(plan.getEvictions()).containsExactlyInAnyOrder(9L, SECOND);
+        assertThat(plan.getRecounts()).containsOnlyKeys(FIRST).containsEntry(FIRST, 1);
+    }
+
+    @Test
+    void insertBeforeEveryCachedPageShiftsThemAll() {
+        ProductCacheIndex.InvalidationPlan plan = index.plan(List.of(ProductChangedEvent.created(product(9L, 5.0))));
+
+        assertThat(plan.getEvictions()).containsExactlyInAnyOrder(9L, FIRST, SECOND);
+        assertThat(plan.getRecounts()).isEmpty();
+    }
+
+    @Test
+    void deleteAfterEveryCachedPageDecrementsTotals() {
+        ProductCacheIndex.InvalidationPlan plan = index.plan(List.of(ProductChangedEvent.deleted(product(9L, 40.0))));
+
+        assertThat(plan.getEvictions()).containsExactly(9L);
+        assertThat(plan.getRecounts()).containsEntry(FIRST, -1).containsEntry(SECOND, -1);
+    }
+
+    @Test
+    void sortValueChangeEvictsEveryPageBetweenOldAndNewPosition() {
+        ProductCacheIndex.InvalidationPlan plan = index.plan(List.of(
+                ProductChangedEvent.updated(product(9L, 40.0), product(9L, 17.0))));
+
+        assertThat(plan.getEvictions()).containsExactlyInAnyOrder(9L, SECOND);
+        assertThat(plan.getRecounts()).isEmpty();
+    }
+
+    @Test
+    void sortValueChangeOutsideCachedRangeKeepsPages() {
+        ProductCacheIndex.InvalidationPlan plan = index.plan(List.of(
+                ProductChangedEvent.updated(product(9L, 40.0), product(9L, 50.0))));
+
+        assertThat(plan.getEvictions()).containsExactly(9L);
+        assertThat(plan.getRecounts()).isEmpty();
+    }
+
+    @Test
+    void updateOfACachedRowEvictsItsPageEvenWithoutSortChange() {
+        ProductResponse before = product(3L, 20.0);
+        ProductResponse after = product(3L, 20.0);
+        after.setName("renamed");
+
+        ProductCacheIndex.InvalidationPlan plan = index.plan(List.of(ProductChangedEvent.updated(before, after)));
+
+        assertThat(plan.getEvictions()).containsExactlyInAnyOrder(3L, SECOND);
+    }
+
+    @Test
+    void bulkChangesAreMergedIntoOnePlan() {
+        ProductCacheIndex.InvalidationPlan plan = index.plan(List.of(
+                ProductChangedEvent.created(product(9L, 40.0)),
+                ProductChangedEvent.created(product(10L, 45.0)),
+                ProductChangedEvent.deleted(product(11L, 50.0))));
+
+        assertThat(plan.getRecounts()).containsEntry(FIRST, 1).containsEntry(SECOND, 1);
+    }
+
+    @Test
+    void invalidatorPatchesTotalsOfPagesBeforeTheInsert() {
+        Cache cache = new ConcurrentMapCache(AppConstants.CACHE_PRODUCTO);
+        SimpleCacheManager manager = new SimpleCacheManager();
+        manager.setCaches(List.of(cache));
+        manager.initializeCaches();
+        cache.put(FIRST, page(0, product(1L, 10.0), product(2L, 15.0)));
+        cache.put(SECOND, page(1, product(3L, 20.0), product(4L, 30.0)));
+
+        invalidator(manager).onProductChanged(ProductChangedEvent.created(product(9L, 25.0)));
+
+        PageableResponse<?> first = cache.get(FIRST, PageableResponse.class);
+        assertThat(first).isNotNull();
+        assertThat(first.getTotalElements()).isEqualTo(7);
+        assertThat(first.getTotalPages()).isEqualTo(4);
+        assertThat(first.isLast()).isFalse();
+        assertThat(cache.get(SECOND)).isNull();
+    }
+
+    @Test
+    void invalidatorDoesNotPutBackAPageEvictedWhileItsTotalsArePatched() {
+        // La pagina se expulsa justo despues de que el invalidador la lea.
+        ConcurrentMap<Object, Object> entries = new ConcurrentHashMap<>() {
+            @Override
+            public Object get(Object key) {
+                Object value = super.get(key);
+                remove(key);
+                return value;
+            }
+        };
+        Cache cache = new ConcurrentMapCache(AppConstants.CACHE_PRODUCTO, entries, false);
+        SimpleCacheManager manager = new SimpleCacheManager();
+        manager.setCaches(List.of(cache));
+        manager.initializeCaches();
+        entries.put(FIRST, page(0, product(1L, 10.0), product(2L, 15.0)));
+
+        invalidator(manager).onProductChanged(ProductChangedEvent.created(product(9L, 40.0)));
+
+        assertThat(entries).doesNotContainKey(FIRST);
+    }
+
+    private ProductCacheInvalidator invalidator(SimpleCacheManager manager) {
+        return new ProductCacheInvalidator(manager, index, new DefaultListableBeanFactory().getBeanProvider(SharedCacheTier.class));
+    }
+
+    private static PageableResponse<ProductResponse> page(int number, ProductResponse... rows) {
+        return new PageableResponse<>(List.of(rows), number, 2, 6, 3, false);
+    }
+
+    private static ProductResponse product(Long id, Double price) {
+        ProductResponse product = new ProductResponse();
+        product.setId(id);
+        product.setName("p" + id);
+        product.setPrice(price);
+        return product;
+    }
+}
@@ -0,0 +1,149 @@
+package com.crud.config.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * TTL blando 2m, TTL duro 10m, stale-if-error 30m; el ticker de Caffeine y el executor de
+ * recarga se mueven a mano.
+ */
+class RefreshAheadCacheTests {
+
+    private static final Duration REFRESH_AFTER = Duration.ofMinutes(2);
+    private static final Duration EXPIRE_AFTER = Duration.ofMinutes(10);
+    private static final Duration STALE_IF_ERROR = Duration.ofMinutes(30);
+
+    private final AtomicLong now = new AtomicLong();
+    private final Queue<Runnable> refreshes = new ArrayDeque<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CaffeineCache local;
+    private final RefreshAheadCache cache = cache();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void freshEntryIsServedWithoutReload() {
+        cache.get("hot", loader("v1"));
+        advance(Duration.ofMinutes(1));
+
+        assertThat(cache.get("hot", loader("v2"))).isEqualTo("v1");
+        assertThat(refreshes).isEmpty();
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void entryPastSoftTtlIsServedWhileOneBackgroundReloadReplacesIt() {
+        cache.get("hot", loader("v1"));
+        advance(Duration.ofMinutes(3));
+
+        assertThat(cache.get("hot", loader("v2"))).isEqualTo("v1");
+        assertThat(cache.get("hot", loader("v2"))).isEqualTo("v1");
+        assertThat(refreshes).hasSize(1);
+
+        refreshes.poll().run();
+        assertThat(cache.get("hot", loader("v3"))).isEqualTo("v2");
+        assertThat(loads).hasValue(2);
+        assertThat(meterRegistry.counter("cache.refresh.background", "cache", "test").count()).isEqualTo(1);
+    }
+
+    @Test
+    void failedReloadPastHardTtlServesStaleUntilStaleIfErrorRunsOut() {
+        cache.get("hot", loader("v1"));
+        advance(Duration.ofMinutes(11));
+
+        assertThat(cache.get("hot", failing())).isEqualTo("v1");
+        assertThat(meterRegistry.counter("cache.refresh.stale-served", "cache", "test").count()).isEqualTo(1);
+
+        advance(Duration.ofMinutes(30));
+        // Caffeine ya la expulso: es un fallo normal.
+        assertThatThrownBy(() -> cache.get("hot", failing())).hasRootCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void otherKeysExpireAtHardTtlWithoutRefreshAheadOrStaleServing() {
+        cache.get("cold", loader("v1"));
+        advance(Duration.ofMinutes(3));
+
+        assertThat(cache.get("cold", loader("v2"))).isEqualTo("v1");
+        assertThat(refreshes).isEmpty();
+
+        advance(Duration.ofMinutes(8));
+        assertThatThrownBy(() -> cache.get("cold", failing())).hasRootCauseInstanceOf(IllegalStateException.class);
+        assertThat(cache.get("cold", loader("v2"))).isEqualTo("v2");
+    }
+
+    @Test
+    void plainReadsDoNotServeAnEntryPastHardTtl() {
+        cache.get("hot", loader("v1"));
+        advance(Duration.ofMinutes(9));
+        assertThat(cache.get("hot")).isNotNull();
+        assertThat(cache.get("hot", String.class)).isEqualTo("v1");
+
+        advance(Duration.ofMinutes(2));
+        // Sigue en Caffeine por stale-if-error, pero ya no es un acierto.
+        assertThat(local.getNativeCache().asMap()).containsKey("hot");
+        assertThat(cache.get("hot")).isNull();
+        assertThat(cache.get("hot", String.class)).isNull();
+    }
+
+    @Test
+    void onlyRefreshableKeysAreKeptForTheStaleIfErrorWindow() {
+        cache.get("hot", loader("v1"));
+        cache.get("cold", loader("v1"));
+        advance(Duration.ofMinutes(11));
+
+        assertThat(local.getNativeCache().asMap()).containsKey("hot").doesNotContainKey("cold");
+    }
+
+    @Test
+    void writeRestartsTheAgeButReadsDoNot() {
+        cache.get("hot", loader("v1"));
+        advance(Duration.ofMinutes(9));
+        cache.get("hot", String.class);
+        advance(Duration.ofMinutes(2));
+        assertThat(cache.get("hot")).isNull();
+
+        cache.put("hot", "v2");
+        advance(Duration.ofMinutes(1));
+        assertThat(cache.get("hot", loader("v3"))).isEqualTo("v2");
+        assertThat(refreshes).isEmpty();
+    }
+
+    private RefreshAheadCache cache() {
+        local = new CaffeineCache("test", Caffeine.newBuilder()
+                .ticker(now::get)
+                .expireAfter(RefreshAheadCache.expiry(EXPIRE_AFTER, STALE_IF_ERROR, "hot"::equals))
+                .build());
+        CoalescingCache coalescing = new CoalescingCache(local, Duration.ofSeconds(5), meterRegistry);
+        return new RefreshAheadCache(coalescing, REFRESH_AFTER, EXPIRE_AFTER, STALE_IF_ERROR, "hot"::equals,
+                refreshes::add, meterRegistry);
+    }
+
+    private Callable<String> loader(String value) {
+        return () -> {
+            loads.incrementAndGet();
+            return value;
+        };
+    }
+
+    private static Callable<String> failing() {
+        return () -> {
+            throw new IllegalStateException("database down");
+        };
+    }
+
+    private void advance(Duration duration) {
+        now.addAndGet(duration.toNanos());
+    }
+}
@@ -0,0 +1,120 @@
+package com.crud.config.cache.cluster;
+
+import com.crud.config.cache.ListeningCache;
+import com.crud.config.cache.ProductCacheIndex;
+import com.crud.config.cache.ProductCacheInvalidator;
+import com.crud.config.cache.ProductPageKey;
+import com.crud.dtos.response.PageableResponse;
+import com.crud.dtos.response.ProductResponse;
+import com.crud.events.ProductChangedEvent;
+import com.crud.util.AppConstants;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.support.SimpleCacheManager;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TwoTierCacheTests {
+
+    private final LoopbackInvalidationBus busA = new LoopbackInvalidationBus("two-tier-test");
+    private final LoopbackInvalidationBus busB = new LoopbackInvalidationBus("two-tier-test");
+
+    @AfterEach
+    void leaveChannel() {
+        busA.destroy();
+        busB.destroy();
+    }
+
+    @Test
+    void writeOnOneNodeInvalidatesTheOtherNodesNearCache() {
+        Cache nodeA = node();
+        Cache nodeB = node();
+        ClusterCacheRelay relayA = new ClusterCacheRelay(busA, event -> { }, "A");
+        ProductCacheInvalidator invalidatorB = invalidator(nodeB, new ProductCacheIndex());
+        ClusterCacheRelay relayB = new ClusterCacheRelay(busB,
+                event -> invalidatorB.onProductChanged((ProductChangedEvent) event), "B");
+        relayA.subscribe();
+        relayB.subscribe();
+
+        ProductResponse product = product(1L, "old");
+        nodeA.put(1L, product);
+        assertThat(nodeB.get(1L, ProductResponse.class)).isSameAs(product); // promoted from L2
+
+        // El nodo A confirma una modificacion: su propio invalidador expulsa de L1 + L2 y despues el relay la difunde.
+        nodeA.evict(1L);
+        relayA.onProductChanged(ProductChangedEvent.updated(product, product(1L, "new")));
+
+        assertThat(nodeA.get(1L)).isNull();
+        assertThat(nodeB.get(1L)).isNull();
+    }
+
+    @Test
+    void pageCachedOnlyByAnotherNodeIsEvictedFromL2ByThatNode() {
+        ProductCacheIndex indexA = new ProductCacheIndex();
+        ProductCacheIndex indexB = new ProductCacheIndex();
+        Cache nodeA = node(indexA);
+        Cache nodeB = node(indexB);
+        ProductCacheInvalidator invalidatorA = invalidator(nodeA, indexA);
+        ProductCacheInvalidator invalidatorB = invalidator(nodeB, indexB);
+        ClusterCacheRelay relayA = new ClusterCacheRelay(busA, event -> { }, "A");
+        ClusterCacheRelay relayB = new ClusterCacheRelay(busB,
+                event -> invalidatorB.onProductChanged((ProductChangedEvent) event), "B");
+        relayA.subscribe();
+        relayB.subscribe();
+
+        // Solo B ha cargado la pagina (L1 de B y L2): el indice de A no la conoce.
+        ProductPageKey key = ProductPageKey.of(0, 2, "price", "asc");
+        nodeB.put(key, new PageableResponse<>(List.of(product(1L, 10.0), product(2L, 20.0)), 0, 2, 2, 1, true));
+
+        // A confirma un alta que cae dentro de la pagina: su invalidador no tiene nada que expulsar.
+        ProductChangedEvent created = ProductChangedEvent.created(product(3L, 15.0));
+        invalidatorA.onProductChanged(created);
+        relayA.onProductChanged(created);
+
+        assertThat(nodeB.get(key)).isNull();
+        assertThat(nodeA.get(key)).isNull();
+        assertThat(node(new ProductCacheIndex()).get(key)).isNull();
+    }
+
+    private static Cache node() {
+        SharedCacheTier shared = new InMemorySharedCacheTier("two-tier-test", Duration.ofMinutes(1), 100);
+        return new TwoTierCache(new ConcurrentMapCache(AppConstants.CACHE_PRODUCTO), shared, null);
+    }
+
+    // Como en CacheConfig: L1 -> L2 -> indice.
+    private static Cache node(ProductCacheIndex index) {
+        SharedCacheTier shared = new InMemorySharedCacheTier("two-tier-test", Duration.ofMinutes(1), 100);
+        return new ListeningCache(new TwoTierCache(new ConcurrentMapCache(AppConstants.CACHE_PRODUCTO), shared, index), index);
+    }
+
+    private static ProductCacheInvalidator invalidator(Cache cache, ProductCacheIndex index) {
+        return new ProductCacheInvalidator(manager(cache), index,
+                new DefaultListableBeanFactory().getBeanProvider(SharedCacheTier.class));
+    }
+
+    private static SimpleCacheManager manager(Cache cache) {
+        SimpleCacheManager manager = new SimpleCacheManager();
+        manager.setCaches(List.of(cache));
+        manager.initializeCaches();
+        return manager;
+    }
+
+    private static ProductResponse product(Long id, Double price) {
+        ProductResponse product = product(id, "p" + id);
+        product.setPrice(price);
+        return product;
+    }
+
+    private static ProductResponse product(Long id, String name) {
+        ProductResponse product = new ProductResponse();
+        product.setId(id);
+        product.setName(name);
+        return product;
+    }
+}
@@ -0,0 +1,191 @@
+package com.crud.config.datasource;
+
+import com.crud.entities.CategoryEntity;
+import com.crud.repositories.CategoryRepository;
+import com.crud.repositories.ProductRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import javax.servlet.http.Cookie;
+import javax.sql.DataSource;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Dos bases H2 hacen de primario y de replica. No se replica nada entre ellas, asi que donde
+ * aparece una fila indica cual sirvio la lectura.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_ON_EXIT=FALSE",
+        "app.datasource.replica.enabled=true",
+        "app.datasource.replica.url=" + ReadWriteRoutingTests.REPLICA_URL,
+        "app.datasource.replica.username=sa",
+        "app.datasource.replica.password=sa",
+        "app.datasource.replica.lag-query=SELECT seconds FROM replica_lag",
+        "app.datasource.replica.max-lag=PT2S",
+        "app.datasource.replica.lag-check-interval=PT1H",
+        "app.cache.warmup.enabled=false"
+})
+@AutoConfigureMockMvc
+class ReadWriteRoutingTests {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+    private static final long REPLICA_ONLY_ID = 9001L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", "sa"));
+
+    private JdbcTemplate primary;
+
+    private Long categoryId;
+
+    @BeforeEach
+    void replicate() {
+        // La peticion simulada del contexto de test no es un cliente: sin ella nada queda pegado al primario.
+        RequestContextHolder.resetRequestAttributes();
+        primary = new JdbcTemplate(primaryDataSource);
+        if (categoryRepository.count() == 0) {
+            CategoryEntity category = new CategoryEntity();
+            category.setName("Hogar");
+            categoryRepository.save(category);
+        }
+        categoryId = categoryRepository.findAll().get(0).getId();
+
+        // Esquema y categoria copiados a mano; el producto REPLICA_ONLY_ID solo existe en la replica.
+        if (replica.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = 'REPLICA_LAG'", Integer.class) == 0) {
+            primary.queryForList("SCRIPT NODATA", String.class).forEach(replica::execute);
+            replica.execute("CREATE TABLE replica_lag (seconds DOUBLE)");
+            replica.update("INSERT INTO replica_lag VALUES (0)");
+            replica.update("INSERT INTO Categoria (id, name, deleted) VALUES (?, 'Hogar', FALSE)", categoryId);
+            replica.update("INSERT INTO Producto (id, name, price, description, category_id, deleted) "
+                    + "VALUES (?, 'Solo en replica', 1, 'x', ?, FALSE)", REPLICA_ONLY_ID, categoryId);
+        }
+        replica.update("UPDATE replica_lag SET seconds = 0");
+        replicaLagMonitor.check();
+        cacheManager.getCacheNames().forEach(name -> Objects.requireNonNull(cacheManager.getCache(name)).clear());
+    }
+
+    @Test
+    void readOnlyTransactionsReadTheReplica() {
+        assertThat(replicaLagMonitor.isReplicaUsable()).isTrue();
+
+        assertThat(findsReplicaOnlyProduct(readOnly())).isTrue();
+        assertThat(findsReplicaOnlyProduct(transactionTemplate)).isFalse();
+    }
+
+    @Test
+    void writesGoToThePrimary() throws Exception {
+        long id = createProduct().id();
+
+        assertThat(primary.queryForObject("SELECT COUNT(*) FROM Producto WHERE id = ?", Integer.class, id)).isOne();
+        assertThat(replica.queryForObject("SELECT COUNT(*) FROM Producto WHERE id = ?", Integer.class, id)).isZero();
+    }
+
+    @Test
+    void laggingReplicaIsBypassed() {
+        replica.update("UPDATE replica_lag SET seconds = 5");
+        replicaLagMonitor.check();
+
+        assertThat(replicaLagMonitor.isReplicaUsable()).isFalse();
+        assertThat(findsReplicaOnlyProduct(readOnly())).isFalse();
+    }
+
+    @Test
+    void clientReadsItsOwnWriteFromThePrimary() throws Exception {
+        Created created = createProduct();
+
+        // Otro cliente, sin la cookie: lee de la replica, que aun no tiene el producto.
+        mockMvc.perform(get("/api/products/{id}", created.id())).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/products/{id}", created.id()).cookie(created.sticky())).andExpect(status().isOk());
+    }
+
+    @Test
+    void stickyClientSkipsAnEntryCachedFromTheLaggingReplica() throws Exception {
+        Created created = createProduct();
+        replica.update("INSERT INTO Producto (id, name, price, description, category_id, deleted) "
+                + "VALUES (?, 'Silla', 10, 'd', ?, FALSE)", created.id(), categoryId);
+
+        String body = "{\"name\":\"Sillon\",\"price\":10,\"description\":\"d\",\"categoryId\":" + categoryId + "}";
+        Cookie sticky = mockMvc.perform(put("/api/products/{id}", created.id()).cookie(created.sticky())
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getCookie("rw-primary-until");
+        // Otro cliente falla en cache tras la invalidacion y la rellena desde la replica, que aun no tiene el cambio.
+        mockMvc.perform(get("/api/products/{id}", created.id()))
+                .andExpect(jsonPath("$.data.name").value("Silla"));
+
+        mockMvc.perform(get("/api/products/{id}", created.id()).cookie(sticky))
+                .andExpect(jsonPath("$.data.name").value("Sillon"));
+        // Lo que cargo del primario sustituye a la entrada obsoleta para todos.
+        mockMvc.perform(get("/api/products/{id}", created.id()))
+                .andExpect(jsonPath("$.data.name").value("Sillon"));
+    }
+
+    private Created createProduct() throws Exception {
+        String body = "{\"name\":\"Silla\",\"price\":10,\"description\":\"d\",\"categoryId\":" + categoryId + "}";
+        MvcResult result = mockMvc.perform(post("/api/products").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(cookie().exists("rw-primary-until"))
+                .andReturn();
+        JsonNode json = objectMapper.readTree(result.getResponse().getContentAsString());
+        return new Created(json.at("/data/id").asLong(), result.getResponse().getCookie("rw-primary-until"));
+    }
+
+    private Boolean findsReplicaOnlyProduct(TransactionTemplate template) {
+        return template.execute(status -> productRepository.findResponseById(REPLICA_ONLY_ID).isPresent());
+    }
+
+    private TransactionTemplate readOnly() {
+        TransactionTemplate readOnly = new TransactionTemplate(Objects.requireNonNull(transactionTemplate.getTransactionManager()));
+        readOnly.setReadOnly(true);
+        return readOnly;
+    }
+
+    private record Created(long id, Cookie sticky) {
+    }
+}
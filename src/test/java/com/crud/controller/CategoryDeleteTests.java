@@ -0,0 +1,122 @@
+package com.crud.controller;
+
+import com.crud.entities.CategoryEntity;
+import com.crud.entities.ProductEntity;
+import com.crud.repositories.CategoryRepository;
+import com.crud.repositories.ProductRepository;
+import com.crud.services.ProductCounts;
+import com.crud.services.ProductSearchIndex;
+import com.crud.util.AppConstants;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Borrar una categoria la borra logicamente junto con sus productos con dos UPDATE, y los
+ * conteos en memoria, el indice de busqueda y las caches de productos siguen el evento confirmado.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:categorydelete;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.cache.warmup.enabled=false"
+})
+@AutoConfigureMockMvc
+class CategoryDeleteTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductCounts productCounts;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void categoryAndItsProductsAreSoftDeletedInTwoStatementsWithoutLoadingTheProducts() throws Exception {
+        CategoryEntity deleted = category("Borrable");
+        CategoryEntity kept = category("Conservada");
+        List<Long> products = List.of(product("Zurcidor", deleted), product("Zurcidora", deleted), product("Zurcido", deleted));
+        Long survivor = product("Zurcion", kept);
+        // Filas guardadas con el repositorio, sin eventos: contadores e indice se leen de la base.
+        productCounts.reconcile();
+        productSearchIndex.rebuild();
+        long total = productCounts.total();
+
+        // Caches llenos: la ficha de un producto de la categoria, la de otro y la primera pagina.
+        mockMvc.perform(get("/api/products/{id}", products.get(0))).andExpect(status().isOk());
+        mockMvc.perform(get("/api/products/{id}", survivor)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/products")).andExpect(status().isOk());
+        Cache cache = Objects.requireNonNull(cacheManager.getCache(AppConstants.CACHE_PRODUCTO));
+        assertThat(cache.get(products.get(0))).isNotNull();
+        assertThat(productSearchIndex.search("zurc", 10)).hasSize(4);
+
+        entityManagerFactory.getCache().evictAll();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(delete("/api/categories/{id}", deleted.getId())).andExpect(status().isOk());
+
+        // El SELECT de la categoria y los dos UPDATE; ningun producto pasa por el contexto de persistencia.
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        assertThat(statistics.getEntityStatistics(ProductEntity.class.getName()).getLoadCount()).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Producto WHERE category_id = ? AND deleted = TRUE "
+                + "AND deleted_at IS NOT NULL", Long.class, deleted.getId())).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject("SELECT deleted FROM Categoria WHERE id = ?", Boolean.class, deleted.getId()))
+                .isTrue();
+
+        assertThat(productCounts.total()).isEqualTo(total - 3);
+        assertThat(productCounts.count(deleted.getId())).isZero();
+        assertThat(productCounts.count(kept.getId())).isEqualTo(1);
+        assertThat(productSearchIndex.search("zurc", 10)).singleElement()
+                .satisfies(product -> assertThat(product.getId()).isEqualTo(survivor));
+        assertThat(cache.get(products.get(0))).isNull();
+        mockMvc.perform(get("/api/products/{id}", products.get(0))).andExpect(status().is4xxClientError());
+        mockMvc.perform(get("/api/products/{id}", survivor)).andExpect(status().isOk());
+    }
+
+    private CategoryEntity category(String name) {
+        CategoryEntity category = new CategoryEntity();
+        category.setName(name);
+        return categoryRepository.save(category);
+    }
+
+    private Long product(String name, CategoryEntity category) {
+        ProductEntity product = new ProductEntity();
+        product.setName(name);
+        product.setPrice(1.0);
+        product.setCategory(category);
+        return productRepository.save(product).getId();
+    }
+}
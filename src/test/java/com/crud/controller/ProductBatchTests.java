@@ -0,0 +1,141 @@
+package com.crud.controller;
+
+import com.crud.entities.CategoryEntity;
+import com.crud.repositories.CategoryRepository;
+import com.crud.util.AppConstants;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Bloques de tres: un elemento invalido solo falla el mismo, un error de base de datos deshace
+ * todo su bloque, y los bloques de alrededor se confirman en cualquier caso.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:productbatch;DB_CLOSE_ON_EXIT=FALSE",
+        "app.cache.warmup.enabled=false",
+        "app.products.batch.chunk-size=3"
+})
+@AutoConfigureMockMvc
+class ProductBatchTests {
+
+    // Mas largo que la columna name (255): falla en el flush, no en la validacion.
+    private static final String TOO_LONG = "x".repeat(300);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long categoryId;
+
+    @BeforeEach
+    void category() {
+        CategoryEntity category = new CategoryEntity();
+        category.setName("Lotes");
+        categoryId = categoryRepository.save(category).getId();
+    }
+
+    @Test
+    void createReportsEachItemAndRevertsOnlyTheFailingChunk() throws Exception {
+        List<Map<String, Object>> items = List.of(
+                item(null, "alta-0", 1.0, categoryId), item(null, "alta-1", 1.0, categoryId), item(null, "alta-2", 1.0, categoryId),
+                item(null, "alta-3", 1.0, categoryId), item(null, TOO_LONG, 1.0, categoryId), item(null, "alta-5", 1.0, categoryId),
+                item(null, "alta-6", 1.0, categoryId), item(null, "alta-7", 1.0, 999_999L), item(null, "alta-8", 1.0, categoryId));
+
+        send(post("/api/products/batch"), items)
+                .andExpect(jsonPath("$.data.length()").value(9))
+                .andExpect(jsonPath("$.data[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.data[2].status").value("CREATED"))
+                .andExpect(jsonPath("$.data[3].status").value("FAILED"))
+                .andExpect(jsonPath("$.data[3].message").value(startsWith("Chunk revertido")))
+                .andExpect(jsonPath("$.data[4].status").value("FAILED"))
+                .andExpect(jsonPath("$.data[5].status").value("FAILED"))
+                .andExpect(jsonPath("$.data[5].message").value(startsWith("Chunk revertido")))
+                .andExpect(jsonPath("$.data[6].status").value("CREATED"))
+                .andExpect(jsonPath("$.data[7].index").value(7))
+                .andExpect(jsonPath("$.data[7].status").value("FAILED"))
+                .andExpect(jsonPath("$.data[7].message").value(AppConstants.BAD_REQUEST_CATEGORY + 999_999L))
+                .andExpect(jsonPath("$.data[8].status").value("CREATED"));
+
+        assertThat(jdbcTemplate.queryForList("SELECT name FROM Producto WHERE name LIKE 'alta-%' ORDER BY name", String.class))
+                .containsExactly("alta-0", "alta-1", "alta-2", "alta-6", "alta-8");
+    }
+
+    @Test
+    void upsertUpdatesCreatesAndKeepsRevertedRowsUntouched() throws Exception {
+        Long first = createdId("upsert-a");
+        Long second = createdId("upsert-b");
+
+        List<Map<String, Object>> items = List.of(
+                item(first, "upsert-a2", 2.0, null), item(888_888L, "fantasma", 1.0, categoryId), item(null, "upsert-c", 3.0, categoryId),
+                item(second, "upsert-b2", 4.0, null), item(null, TOO_LONG, 1.0, categoryId));
+
+        send(put("/api/products/batch"), items)
+                .andExpect(jsonPath("$.data[0].status").value("UPDATED"))
+                .andExpect(jsonPath("$.data[0].id").value(first))
+                .andExpect(jsonPath("$.data[1].status").value("FAILED"))
+                .andExpect(jsonPath("$.data[1].id").value(888_888))
+                .andExpect(jsonPath("$.data[2].status").value("CREATED"))
+                .andExpect(jsonPath("$.data[3].status").value("FAILED"))
+                .andExpect(jsonPath("$.data[4].status").value("FAILED"));
+
+        assertThat(jdbcTemplate.queryForMap("SELECT name, price, category_id FROM Producto WHERE id = ?", first))
+                .containsEntry("NAME", "upsert-a2").containsEntry("PRICE", 2.0).containsEntry("CATEGORY_ID", categoryId);
+        assertThat(jdbcTemplate.queryForMap("SELECT name, price FROM Producto WHERE id = ?", second))
+                .containsEntry("NAME", "upsert-b").containsEntry("PRICE", 1.0);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Producto WHERE name = 'upsert-c'", Long.class)).isEqualTo(1);
+    }
+
+    private Long createdId(String name) throws Exception {
+        String body = send(post("/api/products/batch"), List.of(item(null, name, 1.0, categoryId)))
+                .andExpect(jsonPath("$.data[0].status").value("CREATED"))
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).at("/data/0/id").asLong();
+    }
+
+    private ResultActions send(MockHttpServletRequestBuilder request, List<Map<String, Object>> items) throws Exception {
+        return mockMvc.perform(request.contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(items)))
+                .andExpect(status().isOk());
+    }
+
+    private static Map<String, Object> item(Long id, String name, Double price, Long categoryId) {
+        Map<String, Object> item = new HashMap<>();
+        if (id != null) {
+            item.put("id", id);
+        }
+        item.put("name", name);
+        item.put("price", price);
+        item.put("description", "d");
+        if (categoryId != null) {
+            item.put("categoryId", categoryId);
+        }
+        return item;
+    }
+}
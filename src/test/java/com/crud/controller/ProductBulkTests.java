@@ -0,0 +1,135 @@
+package com.crud.controller;
+
+import com.crud.entities.CategoryEntity;
+import com.crud.entities.ProductEntity;
+import com.crud.repositories.CategoryRepository;
+import com.crud.repositories.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Endpoints de UPDATE masivo: las filas cambian en una sola sentencia y las lecturas cacheadas las siguen.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:productbulk;DB_CLOSE_ON_EXIT=FALSE",
+        "app.cache.warmup.enabled=false"
+})
+@AutoConfigureMockMvc
+class ProductBulkTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private CategoryEntity category;
+    private CategoryEntity other;
+
+    @BeforeEach
+    void categories() {
+        category = category("Masiva");
+        other = category("Otra");
+    }
+
+    @Test
+    void priceChangeIsRoundedToCentsInTheDatabaseAndTheCache() throws Exception {
+        Long cheap = product("a", 3.33, category);
+        Long round = product("b", 10.0, category);
+        Long untouched = product("c", 3.33, other);
+        mockMvc.perform(get("/api/products/{id}", cheap)).andExpect(status().isOk());
+
+        mockMvc.perform(patch("/api/products/price").param("categoryId", String.valueOf(category.getId())).param("percentage", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data").value(2));
+
+        assertThat(price(cheap)).isEqualTo(3.66);
+        assertThat(price(round)).isEqualTo(11.0);
+        assertThat(price(untouched)).isEqualTo(3.33);
+        mockMvc.perform(get("/api/products/{id}", cheap))
+                .andExpect(jsonPath("$.data.price").value(3.66));
+    }
+
+    @Test
+    void priceCannotDropByAHundredPercentOrMore() throws Exception {
+        product("a", 5.0, category);
+
+        mockMvc.perform(patch("/api/products/price").param("categoryId", String.valueOf(category.getId())).param("percentage", "-100"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void deleteByIdsSoftDeletesEveryRow() throws Exception {
+        Long first = product("a", 1.0, category);
+        Long second = product("b", 1.0, other);
+        mockMvc.perform(get("/api/products/{id}", first)).andExpect(status().isOk());
+
+        mockMvc.perform(delete("/api/products").param("ids", first + "," + second))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data").value(2));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Producto WHERE id IN (?, ?) AND deleted = TRUE "
+                + "AND deleted_at IS NOT NULL", Long.class, first, second)).isEqualTo(2);
+        mockMvc.perform(get("/api/products/{id}", first)).andExpect(status().is4xxClientError());
+    }
+
+    @Test
+    void deleteByIdsWithAnUnknownIdIsRejectedWithoutDeletingAny() throws Exception {
+        Long known = product("a", 1.0, category);
+
+        mockMvc.perform(delete("/api/products").param("ids", known + ",987654"))
+                .andExpect(status().isBadRequest());
+
+        assertThat(productRepository.findById(known)).isPresent();
+    }
+
+    @Test
+    void deleteByCategoryOnlyTouchesThatCategory() throws Exception {
+        product("a", 1.0, category);
+        product("b", 1.0, category);
+        Long kept = product("c", 1.0, other);
+
+        mockMvc.perform(delete("/api/products").param("categoryId", String.valueOf(category.getId())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data").value(2));
+
+        assertThat(productRepository.findResponsesByCategoryId(category.getId())).isEmpty();
+        assertThat(productRepository.findById(kept)).isPresent();
+    }
+
+    private CategoryEntity category(String name) {
+        CategoryEntity category = new CategoryEntity();
+        category.setName(name);
+        return categoryRepository.save(category);
+    }
+
+    private Long product(String name, Double price, CategoryEntity category) {
+        ProductEntity product = new ProductEntity();
+        product.setName(name);
+        product.setPrice(price);
+        product.setCategory(category);
+        return productRepository.save(product).getId();
+    }
+
+    private Double price(Long id) {
+        return jdbcTemplate.queryForObject("SELECT price FROM Producto WHERE id = ?", Double.class, id);
+    }
+}
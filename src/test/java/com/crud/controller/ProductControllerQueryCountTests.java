@@ -0,0 +1,112 @@
+package com.crud.controller;
+
+import com.crud.entities.CategoryEntity;
+import com.crud.entities.ProductEntity;
+import com.crud.repositories.CategoryRepository;
+import com.crud.repositories.ProductRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Los endpoints de lectura tienen que cargar productos y categorias en una sola sentencia, sea cual sea el tamaño de pagina.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:querycount;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.cache.warmup.enabled=false"
+})
+@AutoConfigureMockMvc
+class ProductControllerQueryCountTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void seedAndReset() {
+        if (productRepository.count() == 0) {
+            for (int c = 1; c <= 3; c++) {
+                CategoryEntity category = new CategoryEntity();
+                category.setName("Categoria " + c);
+                categoryRepository.save(category);
+                for (int p = 1; p <= 5; p++) {
+                    ProductEntity product = new ProductEntity();
+                    product.setName("Producto " + c + "-" + p);
+                    product.setPrice(10.0 * p);
+                    product.setDescription("Descripcion " + p);
+                    product.setCategory(category);
+                    productRepository.save(product);
+                }
+            }
+        }
+        cacheManager.getCacheNames().forEach(name -> Objects.requireNonNull(cacheManager.getCache(name)).clear());
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void pageOfProductsIsOneStatement() throws Exception {
+        mockMvc.perform(get("/api/products").param("pageSize", "10").param("sortBy", "name"))
+                .andExpect(status().isOk());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void cursorPageOfProductsIsOneStatement() throws Exception {
+        mockMvc.perform(get("/api/products").param("after", "").param("pageSize", "10"))
+                .andExpect(status().isOk());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void productByIdIsOneStatement() throws Exception {
+        Long id = productRepository.findAllResponses().get(0).getId();
+        statistics.clear();
+
+        mockMvc.perform(get("/api/products/{id}", id))
+                .andExpect(status().isOk());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void cachedProductByIdIsNoStatement() throws Exception {
+        Long id = productRepository.findAllResponses().get(0).getId();
+        mockMvc.perform(get("/api/products/{id}", id)).andExpect(status().isOk());
+        statistics.clear();
+
+        mockMvc.perform(get("/api/products/{id}", id))
+                .andExpect(status().isOk());
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+}
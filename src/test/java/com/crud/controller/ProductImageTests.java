@@ -0,0 +1,138 @@
+package com.crud.controller;
+
+import com.crud.entities.CategoryEntity;
+import com.crud.repositories.CategoryRepository;
+import com.crud.repositories.ProductRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.endsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.head;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:productimage;DB_CLOSE_ON_EXIT=FALSE",
+        "app.cache.warmup.enabled=false",
+        "app.images.variants.directory=target/test-image-variants"
+})
+@AutoConfigureMockMvc
+class ProductImageTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void imageIsServedUnderItsDigest() throws Exception {
+        JsonNode product = createProductWithImage();
+        String digest = product.at("/imageDigest").asText();
+        // El campo "image" del API anterior se sigue publicando.
+        assertThat(product.at("/image").isInt()).isTrue();
+
+        mockMvc.perform(get("/api/products/upload-img/{id}", product.at("/id").asLong()).param("v", digest))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + digest + "\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, endsWith("immutable")));
+    }
+
+    @Test
+    void variantIsServedWithItsOwnValidatorAndRanges() throws Exception {
+        JsonNode product = createProductWithImage();
+        long id = product.at("/id").asLong();
+        String digest = product.at("/imageDigest").asText();
+
+        byte[] variant = mockMvc.perform(get("/api/products/upload-img/{id}", id).param("w", "64"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + digest + "-w64.png\""))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(ImageIO.read(new ByteArrayInputStream(variant)).getWidth()).isEqualTo(4);
+
+        mockMvc.perform(get("/api/products/upload-img/{id}", id).param("w", "64").header(HttpHeaders.RANGE, "bytes=0-3,4-7"))
+                .andExpect(status().isPartialContent());
+        mockMvc.perform(head("/api/products/upload-img/{id}", id).param("w", "64"))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, variant.length));
+    }
+
+    @Test
+    void productWithoutImageHasNoImage() throws Exception {
+        CategoryEntity category = new CategoryEntity();
+        category.setName("Sin imagen");
+        categoryRepository.save(category);
+        String body = mockMvc.perform(post("/api/products").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Mesa\",\"price\":5,\"description\":\"d\",\"categoryId\":" + category.getId() + "}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readTree(body).at("/data/id").asLong();
+
+        mockMvc.perform(get("/api/products/upload-img/{id}", id)).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/products/upload-img/{id}", id).param("w", "64")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void staleCachedDigestIsNotServedWithNewBytes() throws Exception {
+        JsonNode product = createProductWithImage();
+        long id = product.at("/id").asLong();
+        String digest = product.at("/imageDigest").asText();
+        mockMvc.perform(get("/api/products/{id}", id)).andExpect(status().isOk());
+
+        // Cambio sin evento: la entrada cacheada del producto conserva el digest anterior.
+        transactionTemplate.executeWithoutResult(status -> productRepository.updateImage(id, "ab" + "0".repeat(62), "image/png"));
+
+        mockMvc.perform(get("/api/products/upload-img/{id}", id).param("v", digest))
+                .andExpect(status().isConflict())
+                .andExpect(header().doesNotExist(HttpHeaders.CACHE_CONTROL));
+    }
+
+    private JsonNode createProductWithImage() throws Exception {
+        CategoryEntity category = new CategoryEntity();
+        category.setName("Imagenes");
+        categoryRepository.save(category);
+        String body = mockMvc.perform(multipart("/api/products/create-image")
+                        .file(new MockMultipartFile("image", "a.png", "image/png", png()))
+                        .param("name", "Lampara")
+                        .param("price", "10")
+                        .param("description", "d")
+                        .param("categoryId", String.valueOf(category.getId())))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).at("/data");
+    }
+
+    private static byte[] png() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(4, 4, BufferedImage.TYPE_INT_ARGB), "png", out);
+        return out.toByteArray();
+    }
+}
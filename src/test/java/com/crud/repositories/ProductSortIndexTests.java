@@ -0,0 +1,176 @@
+package com.crud.repositories;
+
+import com.crud.entities.ProductEntity;
+import com.crud.exceptions.BusinessException;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Las paginas del listado se tienen que leer por el indice compuesto de su campo de orden, y los
+ * listados filtrados por el indice de la columna filtrada. Ejecuta el {@code EXPLAIN} de H2 sobre
+ * el SQL que genera Hibernate de verdad, asi que un indice borrado o un cambio de consulta que lo
+ * anule falla aqui.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sortindex;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.crud.repositories.ProductSortIndexTests$LastStatement",
+        "app.cache.warmup.enabled=false"
+})
+class ProductSortIndexTests {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        if (productRepository.count() == 0) {
+            jdbcTemplate.update("INSERT INTO Categoria (id, name, deleted) SELECT X, 'Categoria ' || X, FALSE FROM SYSTEM_RANGE(1, 20)");
+            jdbcTemplate.update("INSERT INTO Producto (id, name, price, description, category_id, deleted) "
+                    + "SELECT X, 'Producto ' || X, MOD(X * 7919, 1000) / 10.0, 'Descripcion ' || MOD(X, 50), MOD(X, 20) + 1, "
+                    + "MOD(X, 10) = 0 FROM SYSTEM_RANGE(1, 5000)");
+            // Cola de nulos para el cursor.
+            jdbcTemplate.update("INSERT INTO Producto (id, name, category_id, deleted) "
+                    + "SELECT X, 'Sin precio ' || X, 1, FALSE FROM SYSTEM_RANGE(5001, 5030)");
+            jdbcTemplate.execute("ANALYZE");
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(ProductSortField.class)
+    void ascendingPageIsReadInIndexOrder(ProductSortField field) {
+        String plan = explainFirstPage(field, Sort.Direction.ASC);
+
+        assertThat(plan).containsIgnoringCase(field.index(Sort.Direction.ASC) + ":").contains("index sorted");
+    }
+
+    @ParameterizedTest
+    @EnumSource(ProductSortField.class)
+    void descendingPageIsReadInIndexOrder(ProductSortField field) {
+        String plan = explainFirstPage(field, Sort.Direction.DESC);
+
+        assertThat(plan).containsIgnoringCase(field.index(Sort.Direction.DESC) + ":").contains("index sorted");
+    }
+
+    @ParameterizedTest
+    @EnumSource(ProductSortField.class)
+    void cursorPageSeeksARangeOfTheSortIndex(ProductSortField field) {
+        for (Sort.Direction direction : Sort.Direction.values()) {
+            List<ProductEntity> first = productRepository.findPageAfter(field.getProperty(), direction, null, 10);
+            ProductEntity last = first.get(first.size() - 1);
+            ProductCursor cursor = ProductCursor.after(last, field.getProperty(), direction);
+
+            productRepository.findPageAfter(field.getProperty(), direction, cursor, 10);
+
+            Object value = field.valueOf(last);
+            Object[] args = field == ProductSortField.ID ? new Object[]{last.getId(), 10} : new Object[]{value, value, last.getId(), 10};
+            String column = field.getProperty().toUpperCase(Locale.ROOT);
+            assertThat(explain(args)).containsIgnoringCase(field.index(direction) + ":")
+                    .containsPattern("DELETED = FALSE\\s+AND " + column + (direction.isAscending() ? " >" : " <"))
+                    .contains("index sorted");
+        }
+    }
+
+    @Test
+    void cursorNullTailSeeksTheSortIndex() {
+        ProductCursor cursor = ProductCursor.after(productRepository.findById(5001L).orElseThrow(), "price", Sort.Direction.ASC);
+
+        productRepository.findPageAfter("price", Sort.Direction.ASC, cursor, 10);
+
+        assertThat(explain(5001L, 10)).containsIgnoringCase("idx_producto_price:")
+                .containsPattern("DELETED = FALSE\\s+AND PRICE IS NULL").contains("index sorted");
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = Sort.Direction.class)
+    void cursorWalksValuesThenNullsWithoutGapsOrRepeats(Sort.Direction direction) {
+        String dir = direction.isAscending() ? "ASC" : "DESC";
+        List<Long> expected = jdbcTemplate.queryForList("SELECT id FROM Producto WHERE deleted = FALSE "
+                + "ORDER BY price " + dir + " NULLS LAST, id " + dir, Long.class);
+
+        List<Long> walked = new ArrayList<>();
+        ProductCursor cursor = null;
+        List<ProductEntity> page;
+        do {
+            page = productRepository.findPageAfter("price", direction, cursor, 400);
+            page.forEach(product -> walked.add(product.getId()));
+            cursor = page.isEmpty() ? null : ProductCursor.after(page.get(page.size() - 1), "price", direction);
+        } while (page.size() == 400);
+
+        assertThat(walked).isEqualTo(expected);
+    }
+
+    @Test
+    void categoryFacetsSeekTheCategoryIndex() {
+        ProductFilter filter = ProductFilter.of(List.of(3L, 4L), null, null, null);
+
+        productRepository.countFacets(ProductSpecifications.matching(filter), List.of(10.0, 50.0));
+
+        // Indice de la FK o idx_producto_category: cualquiera que busque por category_id.
+        assertThat(explain()).containsPattern("/\\* PUBLIC\\.\\w+: (DELETED = FALSE\\s+AND )?CATEGORY_ID IN\\(3, 4\\)");
+    }
+
+    @Test
+    void priceRangeSeeksThePriceIndex() {
+        ProductFilter filter = ProductFilter.of(null, 20.0, 25.0, null);
+
+        productRepository.findResponses(ProductSpecifications.matching(filter), PageRequest.of(0, 10, ProductSortField.PRICE.sort(Sort.Direction.ASC)));
+
+        assertThat(explain(11)).containsIgnoringCase("idx_producto_price:").contains("index sorted");
+    }
+
+    @Test
+    void namePrefixSeeksTheNameIndex() {
+        ProductFilter filter = ProductFilter.of(null, null, null, "Producto 12");
+
+        productRepository.findResponses(ProductSpecifications.matching(filter), PageRequest.of(0, 10, ProductSortField.NAME.sort(Sort.Direction.ASC)));
+
+        assertThat(explain("Producto 12%", "\\", 11)).containsIgnoringCase("idx_producto_name:").contains("index sorted");
+    }
+
+    @Test
+    void unknownSortFieldIsRejected() {
+        assertThatThrownBy(() -> ProductSortField.of("deleted")).isInstanceOf(BusinessException.class);
+    }
+
+    private String explainFirstPage(ProductSortField field, Sort.Direction direction) {
+        productRepository.findResponsesBy(PageRequest.of(0, 10, field.sort(direction)));
+        Object[] args = new Object[(int) LastStatement.sql.chars().filter(c -> c == '?').count()];
+        Arrays.fill(args, 11);
+        return explain(args);
+    }
+
+    // Plan de la ultima sentencia de Hibernate con los parametros dados.
+    private String explain(Object... args) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + LastStatement.sql, String.class, args);
+    }
+
+    public static class LastStatement implements StatementInspector {
+
+        static volatile String sql;
+
+        @Override
+        public String inspect(String sql) {
+            LastStatement.sql = sql;
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.crud.services;
+
+import com.crud.entities.CategoryEntity;
+import com.crud.repositories.CategoryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Las filas escritas directamente en la base de datos (sin eventos) solo las recoge {@code reconcile()}.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:productcounts;DB_CLOSE_ON_EXIT=FALSE",
+        "app.cache.warmup.enabled=false"
+})
+class ProductCountsTests {
+
+    @Autowired
+    private ProductCounts productCounts;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void reconcileCorrectsDriftFromRowsWrittenWithoutEvents() {
+        CategoryEntity category = new CategoryEntity();
+        category.setName("Contada");
+        categoryRepository.save(category);
+        productCounts.reconcile();
+        long total = productCounts.total();
+        double drift = meterRegistry.counter("products.count.drift").count();
+
+        jdbcTemplate.update("INSERT INTO Producto (id, name, price, category_id, deleted) VALUES "
+                + "(700, 'a', 1.0, ?, FALSE), (701, 'b', 1.0, ?, FALSE), (702, 'c', 1.0, ?, TRUE)",
+                category.getId(), category.getId(), category.getId());
+
+        productCounts.reconcile();
+
+        assertThat(productCounts.total()).isEqualTo(total + 2);
+        assertThat(productCounts.count(category.getId())).isEqualTo(2);
+        assertThat(meterRegistry.counter("products.count.drift").count()).isEqualTo(drift + 2);
+
+        jdbcTemplate.update("DELETE FROM Producto WHERE id = 700");
+        productCounts.reconcile();
+
+        assertThat(productCounts.total()).isEqualTo(total + 1);
+        assertThat(productCounts.count(category.getId())).isEqualTo(1);
+        assertThat(meterRegistry.counter("products.count.drift").count()).isEqualTo(drift + 3);
+    }
+}
@@ -0,0 +1,143 @@
+package com.crud.services;
+
+import com.crud.dtos.response.ProductResponse;
+import com.crud.events.ProductChangedEvent;
+import com.crud.repositories.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductSearchIndexTests {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final List<ProductResponse> database = new ArrayList<>();
+    private Runnable duringRead = () -> { };
+
+    @Test
+    void tokenizeFoldsCaseAndAccentsAndSplitsOnAnythingButLettersAndDigits() {
+        assertThat(ProductSearchIndex.tokenize("Café-Crème, ÅNGSTRÖM 2x  café")).containsExactly("cafe", "creme", "angstrom", "2x");
+        assertThat(ProductSearchIndex.tokenize(" ,; ")).isEmpty();
+        assertThat(ProductSearchIndex.tokenize(null)).isEmpty();
+    }
+
+    @Test
+    void tokenizeDoesNotDependOnTheDefaultLocale() {
+        Locale previous = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr"));
+        try {
+            assertThat(ProductSearchIndex.tokenize("LIMON")).containsExactly("limon");
+        } finally {
+            Locale.setDefault(previous);
+        }
+    }
+
+    @Test
+    void accentsAndCaseAreIgnoredOnBothSides() {
+        ProductSearchIndex index = index(product(1, "Lámpara de Escritorio", "luz cálida"));
+
+        assertThat(ids(index.search("LAMPARA", 10))).containsExactly(1L);
+        assertThat(ids(index.search("calida", 10))).containsExactly(1L);
+    }
+
+    @Test
+    void queryTermsMatchAsPrefixes() {
+        ProductSearchIndex index = index(product(1, "Lampara", null), product(2, "Lamina", null), product(3, "Mesa", null));
+
+        assertThat(ids(index.search("lam", 10))).containsExactly(1L, 2L);
+        assertThat(ids(index.search("lampa", 10))).containsExactly(1L);
+    }
+
+    @Test
+    void everyQueryTermMustMatch() {
+        ProductSearchIndex index = index(product(1, "Lampara roja", null), product(2, "Lampara azul", "no es roja"),
+                product(3, "Silla roja", null));
+
+        assertThat(ids(index.search("lampara roja", 10))).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(ids(index.search("lampara verde", 10))).isEmpty();
+    }
+
+    @Test
+    void namesOutrankDescriptionsExactOutranksPrefixAndTiesGoByIdUpToTheLimit() {
+        ProductSearchIndex index = index(
+                product(1, "Mesa", "de roble"),
+                product(2, "Roble", null),
+                product(3, "Roblenza", null),
+                product(4, "Roble", null),
+                product(5, "Silla", null));
+
+        assertThat(ids(index.search("roble", 10))).containsExactly(2L, 4L, 3L, 1L);
+        assertThat(ids(index.search("roble", 2))).containsExactly(2L, 4L);
+    }
+
+    @Test
+    void updatesAndDeletesReplaceTheIndexedTerms() {
+        ProductResponse lamp = product(1, "Lampara", null);
+        ProductSearchIndex index = index(lamp, product(2, "Mesa", null));
+
+        ProductResponse renamed = product(1, "Farol", null);
+        index.onProductChanged(ProductChangedEvent.updated(lamp, renamed));
+        assertThat(index.search("lampara", 10)).isEmpty();
+        assertThat(index.search("farol", 10)).singleElement().extracting(ProductResponse::getName).isEqualTo("Farol");
+
+        index.onProductChanged(ProductChangedEvent.deleted(renamed));
+        assertThat(index.search("farol", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(1);
+
+        index.onProductChanged(ProductChangedEvent.created(product(3, "Farol", null)));
+        assertThat(ids(index.search("farol", 10))).containsExactly(3L);
+    }
+
+    @Test
+    void eventsArrivingWhileRebuildReadsTheDatabaseAreNotLost() {
+        ProductResponse lamp = product(1, "Lampara", null);
+        ProductSearchIndex index = index(lamp);
+
+        // La foto se lee antes de que estos cambios se confirmen: no los contiene.
+        duringRead = () -> {
+            index.onProductChanged(ProductChangedEvent.created(product(2, "Farol", null)));
+            index.onProductChanged(ProductChangedEvent.deleted(lamp));
+        };
+        index.rebuild();
+
+        assertThat(ids(index.search("farol", 10))).containsExactly(2L);
+        assertThat(index.search("lampara", 10)).isEmpty();
+
+        // Sin rebuild en curso los cambios ya no se guardan para repetirse.
+        duringRead = () -> { };
+        database.clear();
+        database.add(product(7, "Silla", null));
+        index.rebuild();
+        assertThat(ids(index.search("farol", 10))).isEmpty();
+        assertThat(ids(index.search("silla", 10))).containsExactly(7L);
+    }
+
+    private ProductSearchIndex index(ProductResponse... products) {
+        database.addAll(List.of(products));
+        when(productRepository.findAllResponses()).thenAnswer(invocation -> {
+            List<ProductResponse> snapshot = List.copyOf(database);
+            duringRead.run();
+            return snapshot;
+        });
+        ProductSearchIndex index = new ProductSearchIndex(productRepository,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), new SimpleMeterRegistry());
+        index.afterPropertiesSet();
+        return index;
+    }
+
+    private static ProductResponse product(long id, String name, String description) {
+        return new ProductResponse(id, name, 1.0, description, 1L, "Categoria", null, null);
+    }
+
+    private static List<Long> ids(List<ProductResponse> products) {
+        return products.stream().map(ProductResponse::getId).toList();
+    }
+}
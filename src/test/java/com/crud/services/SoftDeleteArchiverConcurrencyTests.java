@@ -0,0 +1,99 @@
+package com.crud.services;
+
+import com.crud.repositories.ArchivableProduct;
+import com.crud.repositories.ProductArchiveRepository;
+import com.crud.repositories.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Otro nodo esta archivando un lote cuando este empieza una pasada: la pasada nunca toma las
+ * filas reclamadas, asi que ningun nodo falla por la clave primaria del archivo.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:archiverconcurrency;DB_CLOSE_ON_EXIT=FALSE",
+        "app.cache.warmup.enabled=false",
+        "app.archive.batch-size=3",
+        "app.archive.interval=PT24H"
+})
+class SoftDeleteArchiverConcurrencyTests {
+
+    @Autowired
+    private SoftDeleteArchiver archiver;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductArchiveRepository productArchiveRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void concurrentPassesClaimDisjointBatches() throws Exception {
+        jdbcTemplate.update("INSERT INTO Categoria (id, name, deleted, deleted_at) "
+                + "VALUES (1, 'Categoria', TRUE, DATEADD('DAY', -60, CURRENT_TIMESTAMP))");
+        for (int id = 100; id < 106; id++) {
+            jdbcTemplate.update("INSERT INTO Producto (id, name, price, category_id, deleted, deleted_at) "
+                    + "VALUES (?, 'Producto', 1.0, 1, TRUE, DATEADD('DAY', -60, CURRENT_TIMESTAMP))", id);
+        }
+        double failures = meterRegistry.counter("archive.failures").count();
+
+        // El otro nodo reclama el primer lote y tarda en archivarlo.
+        CountDownLatch claimed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<List<Long>> otherNode = CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> {
+            List<Long> ids = productRepository.findArchivable(LocalDateTime.now(), 3).stream()
+                    .map(ArchivableProduct::getId).toList();
+            productArchiveRepository.archiveByIdIn(ids);
+            claimed.countDown();
+            await(release);
+            productRepository.purgeByIdIn(ids);
+            return ids;
+        }));
+        assertThat(claimed.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // Esta pasada espera a que el lote reclamado se confirme y sigue con las filas que quedan.
+        CompletableFuture<Void> thisNode = CompletableFuture.runAsync(archiver::archive);
+        Thread.sleep(300);
+        release.countDown();
+        assertThat(otherNode.get(10, TimeUnit.SECONDS)).containsExactly(100L, 101L, 102L);
+        thisNode.get(10, TimeUnit.SECONDS);
+
+        assertThat(ids("Producto")).isEmpty();
+        assertThat(ids("Producto_Archivo")).containsExactly(100L, 101L, 102L, 103L, 104L, 105L);
+        assertThat(ids("Categoria_Archivo")).containsExactly(1L);
+        assertThat(meterRegistry.counter("archive.failures").count()).isEqualTo(failures);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<Long> ids(String table) {
+        return jdbcTemplate.queryForList("SELECT id FROM " + table + " ORDER BY id", Long.class);
+    }
+}
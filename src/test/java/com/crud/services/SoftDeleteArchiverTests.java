@@ -0,0 +1,101 @@
+package com.crud.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Una pasada con lotes de tres sobre filas borradas logicamente antes y despues del periodo de
+ * retencion, con la storage en disco para distinguir las imagenes compartidas de las liberadas.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:archiver;DB_CLOSE_ON_EXIT=FALSE",
+        "app.cache.warmup.enabled=false",
+        "app.archive.batch-size=3",
+        "app.archive.interval=PT24H",
+        "app.images.storage=filesystem",
+        "app.images.directory=target/test-archive-images"
+})
+class SoftDeleteArchiverTests {
+
+    private static final String OLD = "DATEADD('DAY', -60, CURRENT_TIMESTAMP)";
+    private static final String UNIQUE = "c1" + "0".repeat(62);
+    private static final String SHARED = "c2" + "0".repeat(62);
+
+    @Autowired
+    private SoftDeleteArchiver archiver;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void archivesEveryBatchAndCategoriesOnlyOnceTheirProductsAreGone() throws IOException {
+        // 1: borrada hace tiempo con 7 productos borrados (3 lotes). 2: borrada pero con un producto vivo.
+        // 3: borrada sin fecha y sin productos. 4: borrada hace poco. 5: borrada hace tiempo, su producto hace poco.
+        category(1, true, OLD);
+        category(2, true, OLD);
+        category(3, true, "NULL");
+        category(4, true, "CURRENT_TIMESTAMP");
+        category(5, true, OLD);
+        for (int id = 100; id < 107; id++) {
+            product(id, 1, true, OLD, null);
+        }
+        jdbcTemplate.update("UPDATE Producto SET image_digest = ? WHERE id = 100", UNIQUE);
+        jdbcTemplate.update("UPDATE Producto SET image_digest = ? WHERE id = 101", SHARED);
+        product(200, 2, false, "NULL", SHARED);
+        product(201, 2, true, "NULL", null);
+        product(300, 5, true, "CURRENT_TIMESTAMP", null);
+        Path unique = image(UNIQUE);
+        Path shared = image(SHARED);
+        double reclaimed = meterRegistry.counter("archive.images.reclaimed").count();
+
+        archiver.archive();
+
+        assertThat(ids("Producto")).containsExactly(200L, 300L);
+        assertThat(ids("Producto_Archivo")).containsExactly(100L, 101L, 102L, 103L, 104L, 105L, 106L, 201L);
+        assertThat(jdbcTemplate.queryForObject("SELECT image_digest FROM Producto_Archivo WHERE id = 100", String.class))
+                .isEqualTo(UNIQUE);
+        assertThat(jdbcTemplate.queryForObject("SELECT deleted_at FROM Producto_Archivo WHERE id = 201", Object.class)).isNull();
+
+        assertThat(ids("Categoria")).containsExactly(2L, 4L, 5L);
+        assertThat(ids("Categoria_Archivo")).containsExactly(1L, 3L);
+
+        assertThat(unique).doesNotExist();
+        assertThat(shared).exists();
+        assertThat(meterRegistry.counter("archive.images.reclaimed").count()).isEqualTo(reclaimed + 1);
+        assertThat(meterRegistry.counter("archive.failures").count()).isZero();
+    }
+
+    private void category(long id, boolean deleted, String deletedAt) {
+        jdbcTemplate.update("INSERT INTO Categoria (id, name, deleted, deleted_at) VALUES (?, ?, ?, " + deletedAt + ")",
+                id, "Categoria " + id, deleted);
+    }
+
+    private void product(long id, long categoryId, boolean deleted, String deletedAt, String digest) {
+        jdbcTemplate.update("INSERT INTO Producto (id, name, price, category_id, deleted, deleted_at, image_digest) "
+                + "VALUES (?, ?, 1.0, ?, ?, " + deletedAt + ", ?)", id, "Producto " + id, categoryId, deleted, digest);
+    }
+
+    private static Path image(String digest) throws IOException {
+        Path path = Path.of("target/test-archive-images", digest.substring(0, 2), digest).toAbsolutePath();
+        Files.createDirectories(path.getParent());
+        Files.write(path, new byte[]{1, 2, 3});
+        return path;
+    }
+
+    private List<Long> ids(String table) {
+        return jdbcTemplate.queryForList("SELECT id FROM " + table + " ORDER BY id", Long.class);
+    }
+}
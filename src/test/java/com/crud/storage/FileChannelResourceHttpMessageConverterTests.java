@@ -0,0 +1,95 @@
+package com.crud.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileChannelResourceHttpMessageConverterTests {
+
+    private final FileChannelResourceHttpMessageConverter converter = new FileChannelResourceHttpMessageConverter();
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void resetRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void headWritesNoBodyAndClosesTheChannelOpenedForTheLength() throws IOException {
+        Path file = Files.write(directory.resolve("variant"), new byte[]{1, 2, 3, 4});
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        DeferredResource resource = new DeferredResource("variant", () -> new OpenFileResource(file, channel));
+        request("HEAD");
+
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(resource, null, output);
+
+        assertThat(output.getHeaders().getFirst(HttpHeaders.CONTENT_LENGTH)).isEqualTo("4");
+        assertThat(output.getBodyAsBytes()).isEmpty();
+        assertThat(channel.isOpen()).isFalse();
+    }
+
+    @Test
+    void openFileIsStreamedFromItsChannelEvenAfterTheFileIsDeleted() throws IOException {
+        Path file = Files.write(directory.resolve("variant"), new byte[]{1, 2, 3, 4});
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        DeferredResource resource = new DeferredResource("variant", () -> new OpenFileResource(file, channel));
+        // Aunque el conector admita sendfile: Tomcat abriria el fichero por nombre.
+        request("GET").setAttribute(FileChannelResourceHttpMessageConverter.SENDFILE_SUPPORT, Boolean.TRUE);
+        Files.delete(file);
+
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(resource, null, output);
+
+        assertThat(output.getBodyAsBytes()).containsExactly(1, 2, 3, 4);
+        assertThat(channel.isOpen()).isFalse();
+    }
+
+    @Test
+    void filesGoToSendfileWhenTheConnectorSupportsIt() throws IOException {
+        Path file = Files.write(directory.resolve("image"), new byte[]{1, 2, 3, 4, 5});
+        MockHttpServletRequest request = request("GET");
+        request.setAttribute(FileChannelResourceHttpMessageConverter.SENDFILE_SUPPORT, Boolean.TRUE);
+
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(new FileSystemResource(file), null, output);
+
+        assertThat(output.getBodyAsBytes()).isEmpty();
+        assertThat(request.getAttribute(FileChannelResourceHttpMessageConverter.SENDFILE_FILENAME)).isEqualTo(file.toAbsolutePath().toString());
+        assertThat(request.getAttribute(FileChannelResourceHttpMessageConverter.SENDFILE_START)).isEqualTo(0L);
+        assertThat(request.getAttribute(FileChannelResourceHttpMessageConverter.SENDFILE_END)).isEqualTo(5L);
+    }
+
+    @Test
+    void filesAreTransferredWithoutSendfile() throws IOException {
+        Path file = Files.write(directory.resolve("image"), new byte[]{1, 2, 3, 4, 5});
+        request("GET");
+
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(new FileSystemResource(file), null, output);
+
+        assertThat(output.getBodyAsBytes()).containsExactly(1, 2, 3, 4, 5);
+    }
+
+    private static MockHttpServletRequest request(String method) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        return request;
+    }
+}
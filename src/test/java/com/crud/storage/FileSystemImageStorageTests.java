@@ -0,0 +1,157 @@
+package com.crud.storage;
+
+import com.crud.repositories.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FileSystemImageStorageTests {
+
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0, 0, 0, 13, 1, 2, 3};
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void clearTransaction() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void identicalImagesAreStoredOnceUnderTheirDigest() throws IOException {
+        FileSystemImageStorage storage = storage();
+        ImageUpload first = upload(storage, PNG);
+        ImageUpload second = upload(storage, PNG);
+
+        storage.store(1L, first);
+        storage.store(2L, second);
+        second.close();
+
+        Path path = directory.resolve(first.getDigest().substring(0, 2)).resolve(first.getDigest());
+        assertThat(second.getDigest()).isEqualTo(first.getDigest());
+        assertThat(path).hasBinaryContent(PNG);
+        assertThat(files(path.getParent())).containsExactly(path);
+        assertThat(files(storage.spoolDirectory())).isEmpty();
+
+        Resource resource = storage.load(2L, first.getDigest()).orElseThrow();
+        assertThat(resource.contentLength()).isEqualTo(PNG.length);
+        assertThat(storage.load(3L, null)).isEmpty();
+    }
+
+    @Test
+    void fileIsRemovedOnlyOnceNoRowReferencesIt() throws IOException {
+        FileSystemImageStorage storage = storage();
+        String digest = stored(storage);
+        Path path = storage.pathOf(digest);
+
+        // Una fila (aunque este borrada logicamente) todavia la referencia.
+        when(productRepository.countByImageDigest(digest)).thenReturn(1L);
+        assertThat(storage.delete(1L, digest).toCompletableFuture().join()).isFalse();
+        assertThat(path).exists();
+
+        when(productRepository.countByImageDigest(digest)).thenReturn(0L);
+        assertThat(storage.delete(1L, digest).toCompletableFuture().join()).isTrue();
+        assertThat(path).doesNotExist();
+        assertThat(storage.delete(1L, digest).toCompletableFuture().join()).isFalse();
+    }
+
+    @Test
+    void deleteInsideATransactionWaitsForTheCommit() throws IOException {
+        FileSystemImageStorage storage = storage();
+        String digest = stored(storage);
+        when(productRepository.countByImageDigest(anyString())).thenReturn(0L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        CompletionStage<Boolean> rolledBack = storage.delete(1L, digest);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertThat(rolledBack.toCompletableFuture().join()).isFalse();
+        assertThat(storage.pathOf(digest)).exists();
+
+        TransactionSynchronizationManager.initSynchronization();
+        CompletionStage<Boolean> committed = storage.delete(1L, digest);
+        assertThat(committed.toCompletableFuture()).isNotDone();
+        assertThat(storage.pathOf(digest)).exists();
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertThat(committed.toCompletableFuture().join()).isTrue();
+        assertThat(storage.pathOf(digest)).doesNotExist();
+    }
+
+    @Test
+    void imageStoredByAnOpenTransactionSurvivesAConcurrentDeleteAndGoesOnRollback() throws IOException {
+        FileSystemImageStorage storage = storage();
+        // La fila nueva aun no es visible para los demas: el contador no la ve.
+        when(productRepository.countByImageDigest(anyString())).thenReturn(0L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        String digest;
+        try (ImageUpload upload = upload(storage, PNG)) {
+            storage.store(1L, upload);
+            digest = upload.getDigest();
+        }
+
+        boolean reclaimed = CompletableFuture.supplyAsync(() -> storage.delete(2L, digest).toCompletableFuture().join()).join();
+        assertThat(reclaimed).isFalse();
+        assertThat(storage.pathOf(digest)).exists();
+
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertThat(storage.pathOf(digest)).doesNotExist();
+    }
+
+    @Test
+    void digestsThatAreNotHexAreRejected() {
+        FileSystemImageStorage storage = storage();
+
+        assertThatIllegalArgumentException().isThrownBy(() -> storage.pathOf("../etc/passwd"));
+    }
+
+    private FileSystemImageStorage storage() {
+        return new FileSystemImageStorage(directory, productRepository);
+    }
+
+    private String stored(FileSystemImageStorage storage) throws IOException {
+        try (ImageUpload upload = upload(storage, PNG)) {
+            storage.store(1L, upload);
+            return upload.getDigest();
+        }
+    }
+
+    private static ImageUpload upload(FileSystemImageStorage storage, byte[] content) throws IOException {
+        return ImageUpload.spool(new ByteArrayInputStream(content), Long.MAX_VALUE, storage.spoolDirectory());
+    }
+
+    private static List<Path> files(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.toList();
+        }
+    }
+
+    private static void complete(int status) {
+        try {
+            TransactionSynchronizationManager.getSynchronizations().forEach(synchronization -> synchronization.afterCompletion(status));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
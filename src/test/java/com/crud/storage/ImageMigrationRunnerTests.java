@@ -0,0 +1,57 @@
+package com.crud.storage;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@code --migrate-images} mueve los BLOBs de {@code Producto_Imagen} al almacenamiento en disco.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:imagemigration;DB_CLOSE_ON_EXIT=FALSE",
+        "app.cache.warmup.enabled=false",
+        "app.images.storage=filesystem",
+        "app.images.directory=target/test-migration-images"
+})
+class ImageMigrationRunnerTests {
+
+    private static final byte[] GIF = {'G', 'I', 'F', '8', '9', 'a', 1, 0, 1, 0, 0, 0};
+
+    @Autowired
+    private ImageMigrationRunner runner;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void blobsAreMovedToTheStoreAndTheRowsDeleted() {
+        jdbcTemplate.update("INSERT INTO Categoria (id, name, deleted) VALUES (800, 'Migrada', FALSE)");
+        jdbcTemplate.update("INSERT INTO Producto (id, name, price, category_id, deleted) VALUES "
+                + "(800, 'a', 1.0, 800, FALSE), (801, 'b', 1.0, 800, FALSE)");
+        jdbcTemplate.update("INSERT INTO Producto_Imagen (product_id, data) VALUES (800, ?), (801, ?)", GIF, GIF);
+
+        // Sin la opcion no hace nada.
+        runner.run(new DefaultApplicationArguments());
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Producto_Imagen", Long.class)).isEqualTo(2);
+
+        runner.run(new DefaultApplicationArguments("--" + ImageMigrationRunner.OPTION));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Producto_Imagen", Long.class)).isZero();
+        Map<String, Object> first = jdbcTemplate.queryForMap("SELECT image_digest, image_content_type FROM Producto WHERE id = 800");
+        String digest = (String) first.get("image_digest");
+        assertThat(first.get("image_content_type")).isEqualTo("image/gif");
+        assertThat(jdbcTemplate.queryForObject("SELECT image_digest FROM Producto WHERE id = 801", String.class)).isEqualTo(digest);
+        assertThat(Path.of("target/test-migration-images", digest.substring(0, 2), digest)).hasBinaryContent(GIF);
+
+        // Interrumpido o no, se puede volver a lanzar.
+        runner.run(new DefaultApplicationArguments("--" + ImageMigrationRunner.OPTION));
+        assertThat(jdbcTemplate.queryForObject("SELECT image_digest FROM Producto WHERE id = 800", String.class)).isEqualTo(digest);
+    }
+}
@@ -0,0 +1,124 @@
+package com.crud.storage;
+
+import com.crud.exceptions.BusinessException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ImageUploadTests {
+
+    private static final byte[] JPEG = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 0, 16, 'J', 'F', 'I', 'F', 0, 1, 2, 3};
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void spoolsTheContentWithItsDigestSizeAndSniffedType() throws IOException, NoSuchAlgorithmException {
+        try (ImageUpload upload = ImageUpload.spool(new ByteArrayInputStream(JPEG), JPEG.length, directory)) {
+            assertThat(upload.getFile()).hasBinaryContent(JPEG);
+            assertThat(upload.getSize()).isEqualTo(JPEG.length);
+            assertThat(upload.getContentType()).isEqualTo(MediaType.IMAGE_JPEG);
+            assertThat(upload.getDigest()).isEqualTo(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(JPEG)));
+        }
+        assertThat(files()).isEmpty();
+    }
+
+    @Test
+    void sizeLimitStopsTheUploadWhileItStreams() throws IOException {
+        EndlessJpeg content = new EndlessJpeg();
+
+        assertThatThrownBy(() -> ImageUpload.spool(content, 100_000, directory))
+                .isInstanceOfSatisfying(BusinessException.class, ex -> {
+                    assertThat(ex.getCode()).isEqualTo("P-413");
+                    assertThat(ex.getStatus()).isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE);
+                });
+        // Se corta en cuanto se pasa del limite, sin esperar al final del cuerpo.
+        assertThat(content.read).isLessThan(200_000);
+        assertThat(files()).isEmpty();
+    }
+
+    @Test
+    void contentThatIsNotAKnownImageFormatIsRejected() throws IOException {
+        byte[] pdf = "%PDF-1.7 no es una imagen".getBytes();
+
+        assertThatThrownBy(() -> ImageUpload.spool(new ByteArrayInputStream(pdf), 1_000, directory))
+                .isInstanceOfSatisfying(BusinessException.class, ex -> {
+                    assertThat(ex.getCode()).isEqualTo("P-415");
+                    assertThat(ex.getStatus()).isEqualTo(HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+                });
+        assertThat(files()).isEmpty();
+    }
+
+    @Test
+    void sniffRecognisesEverySupportedFormatByItsMagicNumber() {
+        assertThat(ImageUpload.sniff(JPEG)).isEqualTo(MediaType.IMAGE_JPEG);
+        assertThat(ImageUpload.sniff(new byte[]{(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A})).isEqualTo(MediaType.IMAGE_PNG);
+        assertThat(ImageUpload.sniff("GIF89a".getBytes())).isEqualTo(MediaType.IMAGE_GIF);
+        assertThat(ImageUpload.sniff("RIFF\0\0\0\0WEBPVP8 ".getBytes())).isEqualTo(MediaType.parseMediaType("image/webp"));
+        // RIFF sin WEBP (p. ej. un WAV) y cabeceras cortas no pasan.
+        assertThatThrownBy(() -> ImageUpload.sniff("RIFF\0\0\0\0WAVE".getBytes())).isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> ImageUpload.sniff(new byte[]{(byte) 0xFF, (byte) 0xD8})).isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    void readFailureDeletesTheTemporaryFile() {
+        InputStream failing = new InputStream() {
+            private int remaining = JPEG.length;
+
+            @Override
+            public int read() throws IOException {
+                if (remaining == 0) {
+                    throw new IOException("conexion cortada");
+                }
+                return JPEG[JPEG.length - remaining--] & 0xFF;
+            }
+        };
+
+        assertThatThrownBy(() -> ImageUpload.spool(failing, 1_000, directory)).isInstanceOf(IOException.class);
+        assertThat(files()).isEmpty();
+    }
+
+    private List<Path> files() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.toList();
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    // Una cabecera JPEG seguida de ceros sin fin; cuenta lo que se ha leido.
+    private static final class EndlessJpeg extends InputStream {
+
+        long read;
+
+        @Override
+        public int read() {
+            int next = read < JPEG.length ? JPEG[(int) read] & 0xFF : 0;
+            read++;
+            return next;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            for (int i = 0; i < length; i++) {
+                buffer[offset + i] = (byte) read();
+            }
+            return length;
+        }
+    }
+}
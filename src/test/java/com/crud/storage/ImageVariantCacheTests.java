@@ -0,0 +1,150 @@
+package com.crud.storage;
+
+import com.crud.exceptions.BusinessException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ImageVariantCacheTests {
+
+    private static final String DIGEST_A = "aa" + "1".repeat(62);
+    private static final String DIGEST_B = "bb" + "2".repeat(62);
+
+    @TempDir
+    Path directory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger originalReads = new AtomicInteger();
+
+    @Test
+    void variantIsGeneratedOnceAtTheRequestedWidth() throws IOException {
+        ImageVariantCache cache = cache(DataSize.ofMegabytes(1));
+
+        assertThat(width(cache.get(DIGEST_A, 64, "png", original()))).isEqualTo(64);
+        assertThat(width(cache.get(DIGEST_A, 64, "png", original()))).isEqualTo(64);
+
+        assertThat(originalReads).hasValue(1);
+        assertThat(meterRegistry.counter("images.variants.generated").count()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentRequestsForOneVariantGenerateItOnce() throws Exception {
+        ImageVariantCache cache = cache(DataSize.ofMegabytes(1));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> widths = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                widths.add(executor.submit(() -> {
+                    start.await();
+                    return width(cache.get(DIGEST_A, 128, "jpeg", original()));
+                }));
+            }
+            start.countDown();
+            for (Future<Integer> width : widths) {
+                assertThat(width.get(10, TimeUnit.SECONDS)).isEqualTo(128);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(originalReads).hasValue(1);
+    }
+
+    @Test
+    void leastRecentlyUsedVariantIsEvictedBeyondMaxSize() throws IOException {
+        ImageVariantCache cache = cache(DataSize.ofBytes(1));
+
+        cache.get(DIGEST_A, 64, "png", original()).getInputStream().close();
+        cache.get(DIGEST_B, 64, "png", original()).getInputStream().close();
+
+        assertThat(variantFiles()).hasSize(1).allMatch(file -> file.getFileName().toString().startsWith(DIGEST_B));
+        assertThat(meterRegistry.counter("images.variants.evicted").count()).isEqualTo(1);
+    }
+
+    @Test
+    void evictedVariantStillStreamsToTheResponseThatHoldsIt() throws IOException {
+        ImageVariantCache cache = cache(DataSize.ofBytes(1));
+        Resource inFlight = cache.get(DIGEST_A, 64, "png", original());
+
+        cache.get(DIGEST_B, 64, "png", original()).getInputStream().close();
+
+        assertThat(variantFiles()).noneMatch(file -> file.getFileName().toString().startsWith(DIGEST_A));
+        assertThat(width(inFlight)).isEqualTo(64);
+    }
+
+    @Test
+    void variantsSurviveARestart() throws IOException {
+        cache(DataSize.ofMegabytes(1)).get(DIGEST_A, 64, "png", original()).getInputStream().close();
+
+        assertThat(width(cache(DataSize.ofMegabytes(1)).get(DIGEST_A, 64, "png", original()))).isEqualTo(64);
+        assertThat(originalReads).hasValue(1);
+    }
+
+    @Test
+    void unlistedWidthIsRejected() {
+        ImageVariantCache cache = cache(DataSize.ofMegabytes(1));
+
+        assertThatThrownBy(() -> cache.get(DIGEST_A, 65, "png", original())).isInstanceOf(BusinessException.class);
+    }
+
+    private ImageVariantCache cache(DataSize maxSize) {
+        ImageStorageProperties.Variants properties = new ImageStorageProperties.Variants();
+        properties.setDirectory(directory);
+        properties.setMaxSize(maxSize);
+        properties.setWidths(List.of(64, 128));
+        return new ImageVariantCache(properties, meterRegistry);
+    }
+
+    private Supplier<Resource> original() {
+        return () -> {
+            originalReads.incrementAndGet();
+            try {
+                BufferedImage image = new BufferedImage(400, 200, BufferedImage.TYPE_INT_RGB);
+                for (int x = 0; x < 400; x++) {
+                    image.setRGB(x, x / 2, 0xFF0000);
+                }
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                ImageIO.write(image, "png", out);
+                return new ByteArrayResource(out.toByteArray());
+            } catch (IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+        };
+    }
+
+    private static int width(Resource variant) throws IOException {
+        try (InputStream in = variant.getInputStream()) {
+            return ImageIO.read(in).getWidth();
+        }
+    }
+
+    private List<Path> variantFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).toList();
+        }
+    }
+}